@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.R2dbc;
+import net.benpl.r2dbc.Type;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL & bind parameters of all chunks of {@link Abstract#deleteAll(List, int)}, without executing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeleteAllBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int entities;
+
+    @Param({"MYSQL", "PG", "MSSQL", "H2"})
+    Type type;
+
+    private Abstract r2dbc;
+    private TableInfo<Wide5> tableInfo;
+    private List<Wide5> list;
+
+    @Setup
+    public void setup() {
+        r2dbc = (Abstract) R2dbc.of(null, type);
+        tableInfo = TableInfo.of(Wide5.class);
+        list = new ArrayList<>(entities);
+
+        for (int i = 0; i < entities; i++) {
+            Wide5 entity = new Wide5();
+            entity.setCol0((long) i);
+            list.add(entity);
+        }
+    }
+
+    @Benchmark
+    public void deleteAll(Blackhole blackhole) {
+        int chunkSize = r2dbc.chunkSize(tableInfo.deleteKeys.size());
+
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            List<Wide5> chunk = list.subList(from, Math.min(list.size(), from + chunkSize));
+            blackhole.consume(r2dbc.deleteAllSql(tableInfo, chunk.size()));
+            blackhole.consume(r2dbc.deleteAllParams(tableInfo, chunk));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RowMapper#apply(io.r2dbc.spi.Row, io.r2dbc.spi.RowMetadata)} of a row of all columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    @Param({"5", "50", "200"})
+    int columns;
+
+    /**
+     * Metadata instances of the same columns, used in turn by {@link #applyNewMetadata()}.
+     */
+    private static final int POOL_SIZE = 16;
+
+    private RowMapper<?> rowMapper;
+    private Stubs.StubRow row;
+    private Stubs.StubRowMetadata metadata;
+    private Stubs.StubRowMetadata[] metadataPool;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Class<?> clazz = Stubs.entityOf(columns);
+
+        rowMapper = RowMapper.of(clazz);
+        List<String> columnNames = Stubs.columnsOf(clazz);
+        Object[] values = Stubs.valuesOf(clazz);
+
+        row = new Stubs.StubRow(values);
+        metadata = new Stubs.StubRowMetadata(columnNames, values);
+        metadataPool = new Stubs.StubRowMetadata[POOL_SIZE];
+
+        for (int i = 0; i < POOL_SIZE; i++) {
+            metadataPool[i] = new Stubs.StubRowMetadata(columnNames, values);
+        }
+    }
+
+    /**
+     * Same metadata for all rows, as of one result.
+     */
+    @Benchmark
+    public Object apply() {
+        return rowMapper.apply(row, metadata);
+    }
+
+    /**
+     * Another metadata of the same columns for each row, as of separate queries. Instances are built in advance, so
+     * only allocation of the mapping is measured.
+     */
+    @Benchmark
+    public Object applyNewMetadata() {
+        Stubs.StubRowMetadata another = metadataPool[next];
+        next = (next + 1) % POOL_SIZE;
+        return rowMapper.apply(row, another);
+    }
+}
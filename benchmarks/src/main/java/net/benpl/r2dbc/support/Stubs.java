@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import net.benpl.r2dbc.annotation.Column;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Synthetic entities, rows & row metadata, without database.
+ */
+class Stubs {
+
+    static Class<?> entityOf(int columns) {
+        switch (columns) {
+            case 5:
+                return Wide5.class;
+            case 50:
+                return Wide50.class;
+            case 200:
+                return Wide200.class;
+            default:
+                throw new IllegalArgumentException("No entity of " + columns + " columns.");
+        }
+    }
+
+    /**
+     * Values of all columns, typed as the fields.
+     */
+    static Object[] valuesOf(Class<?> clazz) {
+        Field[] fields = clazz.getDeclaredFields();
+        Object[] values = new Object[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            Class<?> type = fields[i].getType();
+
+            if (type == Long.class) {
+                values[i] = (long) i;
+            } else if (type == Integer.class) {
+                values[i] = i;
+            } else {
+                values[i] = "value" + i;
+            }
+        }
+
+        return values;
+    }
+
+    static List<String> columnsOf(Class<?> clazz) {
+        Field[] fields = clazz.getDeclaredFields();
+        List<String> columns = new ArrayList<>(fields.length);
+
+        for (Field field : fields) {
+            columns.add(field.getAnnotation(Column.class).value());
+        }
+
+        return columns;
+    }
+
+    static class StubRow implements Row {
+        private final Object[] values;
+
+        StubRow(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    static class StubRowMetadata implements RowMetadata {
+        private final List<String> columnNames;
+        private final List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+
+        StubRowMetadata(List<String> columnNames, Object[] values) {
+            this.columnNames = columnNames;
+
+            for (int i = 0; i < columnNames.size(); i++) {
+                columnMetadatas.add(new StubColumnMetadata(columnNames.get(i), values[i].getClass()));
+            }
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columnMetadatas.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columnMetadatas.get(columnNames.indexOf(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columnMetadatas;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return columnNames;
+        }
+    }
+
+    static class StubColumnMetadata implements ColumnMetadata {
+        private final String name;
+        private final Class<?> javaType;
+
+        StubColumnMetadata(String name, Class<?> javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+    }
+}
@@ -0,0 +1,637 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package net.benpl.r2dbc.support;
+
+import lombok.Data;
+import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.annotation.Table;
+
+/**
+ * Entity of 200 columns.
+ */
+@Data
+@Table(value = "wide_200", type = "TABLE")
+public class Wide200 {
+    @Column(value = "col_0", primary = true)
+    private Long col0;
+
+    @Column(value = "col_1")
+    private String col1;
+
+    @Column(value = "col_2")
+    private Long col2;
+
+    @Column(value = "col_3", nullable = true)
+    private String col3;
+
+    @Column(value = "col_4")
+    private Integer col4;
+
+    @Column(value = "col_5")
+    private String col5;
+
+    @Column(value = "col_6")
+    private Long col6;
+
+    @Column(value = "col_7", nullable = true)
+    private String col7;
+
+    @Column(value = "col_8")
+    private Integer col8;
+
+    @Column(value = "col_9")
+    private String col9;
+
+    @Column(value = "col_10")
+    private Long col10;
+
+    @Column(value = "col_11", nullable = true)
+    private String col11;
+
+    @Column(value = "col_12")
+    private Integer col12;
+
+    @Column(value = "col_13")
+    private String col13;
+
+    @Column(value = "col_14")
+    private Long col14;
+
+    @Column(value = "col_15", nullable = true)
+    private String col15;
+
+    @Column(value = "col_16")
+    private Integer col16;
+
+    @Column(value = "col_17")
+    private String col17;
+
+    @Column(value = "col_18")
+    private Long col18;
+
+    @Column(value = "col_19", nullable = true)
+    private String col19;
+
+    @Column(value = "col_20")
+    private Integer col20;
+
+    @Column(value = "col_21")
+    private String col21;
+
+    @Column(value = "col_22")
+    private Long col22;
+
+    @Column(value = "col_23", nullable = true)
+    private String col23;
+
+    @Column(value = "col_24")
+    private Integer col24;
+
+    @Column(value = "col_25")
+    private String col25;
+
+    @Column(value = "col_26")
+    private Long col26;
+
+    @Column(value = "col_27", nullable = true)
+    private String col27;
+
+    @Column(value = "col_28")
+    private Integer col28;
+
+    @Column(value = "col_29")
+    private String col29;
+
+    @Column(value = "col_30")
+    private Long col30;
+
+    @Column(value = "col_31", nullable = true)
+    private String col31;
+
+    @Column(value = "col_32")
+    private Integer col32;
+
+    @Column(value = "col_33")
+    private String col33;
+
+    @Column(value = "col_34")
+    private Long col34;
+
+    @Column(value = "col_35", nullable = true)
+    private String col35;
+
+    @Column(value = "col_36")
+    private Integer col36;
+
+    @Column(value = "col_37")
+    private String col37;
+
+    @Column(value = "col_38")
+    private Long col38;
+
+    @Column(value = "col_39", nullable = true)
+    private String col39;
+
+    @Column(value = "col_40")
+    private Integer col40;
+
+    @Column(value = "col_41")
+    private String col41;
+
+    @Column(value = "col_42")
+    private Long col42;
+
+    @Column(value = "col_43", nullable = true)
+    private String col43;
+
+    @Column(value = "col_44")
+    private Integer col44;
+
+    @Column(value = "col_45")
+    private String col45;
+
+    @Column(value = "col_46")
+    private Long col46;
+
+    @Column(value = "col_47", nullable = true)
+    private String col47;
+
+    @Column(value = "col_48")
+    private Integer col48;
+
+    @Column(value = "col_49")
+    private String col49;
+
+    @Column(value = "col_50")
+    private Long col50;
+
+    @Column(value = "col_51", nullable = true)
+    private String col51;
+
+    @Column(value = "col_52")
+    private Integer col52;
+
+    @Column(value = "col_53")
+    private String col53;
+
+    @Column(value = "col_54")
+    private Long col54;
+
+    @Column(value = "col_55", nullable = true)
+    private String col55;
+
+    @Column(value = "col_56")
+    private Integer col56;
+
+    @Column(value = "col_57")
+    private String col57;
+
+    @Column(value = "col_58")
+    private Long col58;
+
+    @Column(value = "col_59", nullable = true)
+    private String col59;
+
+    @Column(value = "col_60")
+    private Integer col60;
+
+    @Column(value = "col_61")
+    private String col61;
+
+    @Column(value = "col_62")
+    private Long col62;
+
+    @Column(value = "col_63", nullable = true)
+    private String col63;
+
+    @Column(value = "col_64")
+    private Integer col64;
+
+    @Column(value = "col_65")
+    private String col65;
+
+    @Column(value = "col_66")
+    private Long col66;
+
+    @Column(value = "col_67", nullable = true)
+    private String col67;
+
+    @Column(value = "col_68")
+    private Integer col68;
+
+    @Column(value = "col_69")
+    private String col69;
+
+    @Column(value = "col_70")
+    private Long col70;
+
+    @Column(value = "col_71", nullable = true)
+    private String col71;
+
+    @Column(value = "col_72")
+    private Integer col72;
+
+    @Column(value = "col_73")
+    private String col73;
+
+    @Column(value = "col_74")
+    private Long col74;
+
+    @Column(value = "col_75", nullable = true)
+    private String col75;
+
+    @Column(value = "col_76")
+    private Integer col76;
+
+    @Column(value = "col_77")
+    private String col77;
+
+    @Column(value = "col_78")
+    private Long col78;
+
+    @Column(value = "col_79", nullable = true)
+    private String col79;
+
+    @Column(value = "col_80")
+    private Integer col80;
+
+    @Column(value = "col_81")
+    private String col81;
+
+    @Column(value = "col_82")
+    private Long col82;
+
+    @Column(value = "col_83", nullable = true)
+    private String col83;
+
+    @Column(value = "col_84")
+    private Integer col84;
+
+    @Column(value = "col_85")
+    private String col85;
+
+    @Column(value = "col_86")
+    private Long col86;
+
+    @Column(value = "col_87", nullable = true)
+    private String col87;
+
+    @Column(value = "col_88")
+    private Integer col88;
+
+    @Column(value = "col_89")
+    private String col89;
+
+    @Column(value = "col_90")
+    private Long col90;
+
+    @Column(value = "col_91", nullable = true)
+    private String col91;
+
+    @Column(value = "col_92")
+    private Integer col92;
+
+    @Column(value = "col_93")
+    private String col93;
+
+    @Column(value = "col_94")
+    private Long col94;
+
+    @Column(value = "col_95", nullable = true)
+    private String col95;
+
+    @Column(value = "col_96")
+    private Integer col96;
+
+    @Column(value = "col_97")
+    private String col97;
+
+    @Column(value = "col_98")
+    private Long col98;
+
+    @Column(value = "col_99", nullable = true)
+    private String col99;
+
+    @Column(value = "col_100")
+    private Integer col100;
+
+    @Column(value = "col_101")
+    private String col101;
+
+    @Column(value = "col_102")
+    private Long col102;
+
+    @Column(value = "col_103", nullable = true)
+    private String col103;
+
+    @Column(value = "col_104")
+    private Integer col104;
+
+    @Column(value = "col_105")
+    private String col105;
+
+    @Column(value = "col_106")
+    private Long col106;
+
+    @Column(value = "col_107", nullable = true)
+    private String col107;
+
+    @Column(value = "col_108")
+    private Integer col108;
+
+    @Column(value = "col_109")
+    private String col109;
+
+    @Column(value = "col_110")
+    private Long col110;
+
+    @Column(value = "col_111", nullable = true)
+    private String col111;
+
+    @Column(value = "col_112")
+    private Integer col112;
+
+    @Column(value = "col_113")
+    private String col113;
+
+    @Column(value = "col_114")
+    private Long col114;
+
+    @Column(value = "col_115", nullable = true)
+    private String col115;
+
+    @Column(value = "col_116")
+    private Integer col116;
+
+    @Column(value = "col_117")
+    private String col117;
+
+    @Column(value = "col_118")
+    private Long col118;
+
+    @Column(value = "col_119", nullable = true)
+    private String col119;
+
+    @Column(value = "col_120")
+    private Integer col120;
+
+    @Column(value = "col_121")
+    private String col121;
+
+    @Column(value = "col_122")
+    private Long col122;
+
+    @Column(value = "col_123", nullable = true)
+    private String col123;
+
+    @Column(value = "col_124")
+    private Integer col124;
+
+    @Column(value = "col_125")
+    private String col125;
+
+    @Column(value = "col_126")
+    private Long col126;
+
+    @Column(value = "col_127", nullable = true)
+    private String col127;
+
+    @Column(value = "col_128")
+    private Integer col128;
+
+    @Column(value = "col_129")
+    private String col129;
+
+    @Column(value = "col_130")
+    private Long col130;
+
+    @Column(value = "col_131", nullable = true)
+    private String col131;
+
+    @Column(value = "col_132")
+    private Integer col132;
+
+    @Column(value = "col_133")
+    private String col133;
+
+    @Column(value = "col_134")
+    private Long col134;
+
+    @Column(value = "col_135", nullable = true)
+    private String col135;
+
+    @Column(value = "col_136")
+    private Integer col136;
+
+    @Column(value = "col_137")
+    private String col137;
+
+    @Column(value = "col_138")
+    private Long col138;
+
+    @Column(value = "col_139", nullable = true)
+    private String col139;
+
+    @Column(value = "col_140")
+    private Integer col140;
+
+    @Column(value = "col_141")
+    private String col141;
+
+    @Column(value = "col_142")
+    private Long col142;
+
+    @Column(value = "col_143", nullable = true)
+    private String col143;
+
+    @Column(value = "col_144")
+    private Integer col144;
+
+    @Column(value = "col_145")
+    private String col145;
+
+    @Column(value = "col_146")
+    private Long col146;
+
+    @Column(value = "col_147", nullable = true)
+    private String col147;
+
+    @Column(value = "col_148")
+    private Integer col148;
+
+    @Column(value = "col_149")
+    private String col149;
+
+    @Column(value = "col_150")
+    private Long col150;
+
+    @Column(value = "col_151", nullable = true)
+    private String col151;
+
+    @Column(value = "col_152")
+    private Integer col152;
+
+    @Column(value = "col_153")
+    private String col153;
+
+    @Column(value = "col_154")
+    private Long col154;
+
+    @Column(value = "col_155", nullable = true)
+    private String col155;
+
+    @Column(value = "col_156")
+    private Integer col156;
+
+    @Column(value = "col_157")
+    private String col157;
+
+    @Column(value = "col_158")
+    private Long col158;
+
+    @Column(value = "col_159", nullable = true)
+    private String col159;
+
+    @Column(value = "col_160")
+    private Integer col160;
+
+    @Column(value = "col_161")
+    private String col161;
+
+    @Column(value = "col_162")
+    private Long col162;
+
+    @Column(value = "col_163", nullable = true)
+    private String col163;
+
+    @Column(value = "col_164")
+    private Integer col164;
+
+    @Column(value = "col_165")
+    private String col165;
+
+    @Column(value = "col_166")
+    private Long col166;
+
+    @Column(value = "col_167", nullable = true)
+    private String col167;
+
+    @Column(value = "col_168")
+    private Integer col168;
+
+    @Column(value = "col_169")
+    private String col169;
+
+    @Column(value = "col_170")
+    private Long col170;
+
+    @Column(value = "col_171", nullable = true)
+    private String col171;
+
+    @Column(value = "col_172")
+    private Integer col172;
+
+    @Column(value = "col_173")
+    private String col173;
+
+    @Column(value = "col_174")
+    private Long col174;
+
+    @Column(value = "col_175", nullable = true)
+    private String col175;
+
+    @Column(value = "col_176")
+    private Integer col176;
+
+    @Column(value = "col_177")
+    private String col177;
+
+    @Column(value = "col_178")
+    private Long col178;
+
+    @Column(value = "col_179", nullable = true)
+    private String col179;
+
+    @Column(value = "col_180")
+    private Integer col180;
+
+    @Column(value = "col_181")
+    private String col181;
+
+    @Column(value = "col_182")
+    private Long col182;
+
+    @Column(value = "col_183", nullable = true)
+    private String col183;
+
+    @Column(value = "col_184")
+    private Integer col184;
+
+    @Column(value = "col_185")
+    private String col185;
+
+    @Column(value = "col_186")
+    private Long col186;
+
+    @Column(value = "col_187", nullable = true)
+    private String col187;
+
+    @Column(value = "col_188")
+    private Integer col188;
+
+    @Column(value = "col_189")
+    private String col189;
+
+    @Column(value = "col_190")
+    private Long col190;
+
+    @Column(value = "col_191", nullable = true)
+    private String col191;
+
+    @Column(value = "col_192")
+    private Integer col192;
+
+    @Column(value = "col_193")
+    private String col193;
+
+    @Column(value = "col_194")
+    private Long col194;
+
+    @Column(value = "col_195", nullable = true)
+    private String col195;
+
+    @Column(value = "col_196")
+    private Integer col196;
+
+    @Column(value = "col_197")
+    private String col197;
+
+    @Column(value = "col_198")
+    private Long col198;
+
+    @Column(value = "col_199", nullable = true)
+    private String col199;
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package net.benpl.r2dbc.support;
+
+import lombok.Data;
+import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.annotation.Table;
+
+/**
+ * Entity of 5 columns.
+ */
+@Data
+@Table(value = "wide_5", type = "TABLE")
+public class Wide5 {
+    @Column(value = "col_0", primary = true)
+    private Long col0;
+
+    @Column(value = "col_1")
+    private String col1;
+
+    @Column(value = "col_2")
+    private Long col2;
+
+    @Column(value = "col_3", nullable = true)
+    private String col3;
+
+    @Column(value = "col_4")
+    private Integer col4;
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package net.benpl.r2dbc.support;
+
+import lombok.Data;
+import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.annotation.Table;
+
+/**
+ * Entity of 50 columns.
+ */
+@Data
+@Table(value = "wide_50", type = "TABLE")
+public class Wide50 {
+    @Column(value = "col_0", primary = true)
+    private Long col0;
+
+    @Column(value = "col_1")
+    private String col1;
+
+    @Column(value = "col_2")
+    private Long col2;
+
+    @Column(value = "col_3", nullable = true)
+    private String col3;
+
+    @Column(value = "col_4")
+    private Integer col4;
+
+    @Column(value = "col_5")
+    private String col5;
+
+    @Column(value = "col_6")
+    private Long col6;
+
+    @Column(value = "col_7", nullable = true)
+    private String col7;
+
+    @Column(value = "col_8")
+    private Integer col8;
+
+    @Column(value = "col_9")
+    private String col9;
+
+    @Column(value = "col_10")
+    private Long col10;
+
+    @Column(value = "col_11", nullable = true)
+    private String col11;
+
+    @Column(value = "col_12")
+    private Integer col12;
+
+    @Column(value = "col_13")
+    private String col13;
+
+    @Column(value = "col_14")
+    private Long col14;
+
+    @Column(value = "col_15", nullable = true)
+    private String col15;
+
+    @Column(value = "col_16")
+    private Integer col16;
+
+    @Column(value = "col_17")
+    private String col17;
+
+    @Column(value = "col_18")
+    private Long col18;
+
+    @Column(value = "col_19", nullable = true)
+    private String col19;
+
+    @Column(value = "col_20")
+    private Integer col20;
+
+    @Column(value = "col_21")
+    private String col21;
+
+    @Column(value = "col_22")
+    private Long col22;
+
+    @Column(value = "col_23", nullable = true)
+    private String col23;
+
+    @Column(value = "col_24")
+    private Integer col24;
+
+    @Column(value = "col_25")
+    private String col25;
+
+    @Column(value = "col_26")
+    private Long col26;
+
+    @Column(value = "col_27", nullable = true)
+    private String col27;
+
+    @Column(value = "col_28")
+    private Integer col28;
+
+    @Column(value = "col_29")
+    private String col29;
+
+    @Column(value = "col_30")
+    private Long col30;
+
+    @Column(value = "col_31", nullable = true)
+    private String col31;
+
+    @Column(value = "col_32")
+    private Integer col32;
+
+    @Column(value = "col_33")
+    private String col33;
+
+    @Column(value = "col_34")
+    private Long col34;
+
+    @Column(value = "col_35", nullable = true)
+    private String col35;
+
+    @Column(value = "col_36")
+    private Integer col36;
+
+    @Column(value = "col_37")
+    private String col37;
+
+    @Column(value = "col_38")
+    private Long col38;
+
+    @Column(value = "col_39", nullable = true)
+    private String col39;
+
+    @Column(value = "col_40")
+    private Integer col40;
+
+    @Column(value = "col_41")
+    private String col41;
+
+    @Column(value = "col_42")
+    private Long col42;
+
+    @Column(value = "col_43", nullable = true)
+    private String col43;
+
+    @Column(value = "col_44")
+    private Integer col44;
+
+    @Column(value = "col_45")
+    private String col45;
+
+    @Column(value = "col_46")
+    private Long col46;
+
+    @Column(value = "col_47", nullable = true)
+    private String col47;
+
+    @Column(value = "col_48")
+    private Integer col48;
+
+    @Column(value = "col_49")
+    private String col49;
+}
@@ -0,0 +1,419 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates an {@code EntityAccessor} for each class annotated with {@code @Table}, and for its {@code @IdClass}.
+ * <p>
+ * Generated accessors call the same getter/setter of {@code @Column} fields as the reflective access at runtime: public
+ * {@code getX()} (or {@code isX()} of primitive boolean), and public {@code setX(type of field)} declared by the class
+ * itself. Fields without both are left to the reflective access. Final {@code @Column} fields are rejected, since
+ * columns are set on every load. Accessors are registered in {@code META-INF/services} so that spring-r2dbc picks them
+ * up via {@link java.util.ServiceLoader}.
+ */
+@SupportedAnnotationTypes(EntityProcessor.TABLE)
+public class EntityProcessor extends AbstractProcessor {
+
+    static final String TABLE = "net.benpl.r2dbc.annotation.Table";
+    private static final String COLUMN = "net.benpl.r2dbc.annotation.Column";
+    private static final String ID_CLASS = "net.benpl.r2dbc.annotation.IdClass";
+
+    private static final String ACCESSOR = "net.benpl.r2dbc.support.EntityAccessor";
+    private static final String SERVICE = "META-INF/services/" + ACCESSOR;
+    private static final String SUFFIX = "_R2dbcAccessor";
+
+    /**
+     * Qualified names of processed classes.
+     */
+    private final Set<String> processed = new HashSet<>();
+
+    /**
+     * Qualified names of generated accessors.
+     */
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServices();
+            return false;
+        }
+
+        TypeElement table = processingEnv.getElementUtils().getTypeElement(TABLE);
+        if (table == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(table)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            generate(type);
+
+            TypeElement idClass = idClassOf(type);
+            if (idClass != null) {
+                generate(idClass);
+            }
+        }
+
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (!processed.add(type.getQualifiedName().toString())) {
+            return;
+        }
+
+        if (!isAccessible(type)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "spring-r2dbc: " + type.getQualifiedName() + " is not accessible from its package, accessor not generated.", type);
+            return;
+        }
+
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String typeName = types.erasure(type.asType()).toString();
+        String simpleName = flatName(type) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        List<VariableElement> fields = new ArrayList<>();
+        List<String> getters = new ArrayList<>();
+        List<String> setters = new ArrayList<>();
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || annotationOf(field, COLUMN) == null) {
+                continue;
+            }
+
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "spring-r2dbc: @Column field " + field.getSimpleName() + " of " + type.getQualifiedName() + " must not be final.", field);
+                return;
+            }
+
+            String getter = getterOf(type, field);
+            String setter = setterOf(type, field);
+
+            if (getter == null || setter == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "spring-r2dbc: public getter/setter of " + field.getSimpleName() + " not found, accessed reflectively.", field);
+                continue;
+            }
+
+            fields.add(field);
+            getters.add(getter);
+            setters.add(setter);
+        }
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+
+            out.println("/**");
+            out.println(" * Generated by " + EntityProcessor.class.getName() + ". Do not edit.");
+            out.println(" */");
+            out.println("public final class " + simpleName + " implements " + ACCESSOR + "<" + typeName + "> {");
+            out.println();
+
+            out.print("    private static final String[] FIELD_NAMES = {");
+            for (int i = 0; i < fields.size(); i++) {
+                out.print((i == 0 ? "" : ", ") + "\"" + fields.get(i).getSimpleName() + "\"");
+            }
+            out.println("};");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public Class<" + typeName + "> entityClass() {");
+            out.println("        return " + typeName + ".class;");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public String[] fieldNames() {");
+            out.println("        return FIELD_NAMES.clone();");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public " + typeName + " newInstance() {");
+            out.println("        return " + (isInstantiable(type) ? "new " + typeName + "()" : "null") + ";");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public Object get(" + typeName + " entity, int index) {");
+            out.println("        switch (index) {");
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("            case " + i + ":");
+                out.println("                return entity." + getters.get(i) + "();");
+            }
+            out.println("            default:");
+            out.println("                throw new IndexOutOfBoundsException(String.valueOf(index));");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public void set(" + typeName + " entity, int index, Object value) {");
+            out.println("        switch (index) {");
+            for (int i = 0; i < fields.size(); i++) {
+                String cast = "(" + castType(fields.get(i).asType()) + ") value";
+                out.println("            case " + i + ":");
+                out.println("                entity." + setters.get(i) + "(" + cast + ");");
+                out.println("                break;");
+            }
+            out.println("            default:");
+            out.println("                throw new IndexOutOfBoundsException(String.valueOf(index));");
+            out.println("        }");
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "spring-r2dbc: failed to generate " + qualifiedName + ". (" + e.getMessage() + ")", type);
+            return;
+        }
+
+        generated.add(qualifiedName);
+    }
+
+    /**
+     * Merges generated accessors into the service file, keeping entries of previous (incremental) compilations.
+     */
+    private void writeServices() {
+        if (generated.isEmpty()) {
+            return;
+        }
+
+        Filer filer = processingEnv.getFiler();
+        Set<String> services = new TreeSet<>(generated);
+
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        services.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No service file yet.
+        }
+
+        try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE).openWriter()) {
+            for (String service : services) {
+                writer.write(service);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "spring-r2dbc: failed to write " + SERVICE + ". (" + e.getMessage() + ")");
+        }
+    }
+
+    private TypeElement idClassOf(TypeElement type) {
+        AnnotationMirror idClass = annotationOf(type, ID_CLASS);
+        if (idClass == null) {
+            return null;
+        }
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : idClass.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof DeclaredType) {
+                    return (TypeElement) ((DeclaredType) value).asElement();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private AnnotationMirror annotationOf(Element element, String annotationName) {
+        for (AnnotationMirror mirror : processingEnv.getElementUtils().getAllAnnotationMirrors(element)) {
+            Element annotation = mirror.getAnnotationType().asElement();
+            if (((TypeElement) annotation).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return TRUE if type is reachable from a class of the same package.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        for (Element element = type; element.getKind().isClass() || element.getKind().isInterface(); element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+
+            Element enclosing = element.getEnclosingElement();
+            boolean nested = enclosing.getKind().isClass() || enclosing.getKind().isInterface();
+
+            if (nested && element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.STATIC)) {
+                // Inner class needs an outer instance.
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return TRUE if type has a non-private no-args constructor.
+     */
+    private static boolean isInstantiable(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return Outer_Inner for nested classes.
+     */
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+
+        while (enclosing.getKind().isClass() || enclosing.getKind().isInterface()) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+
+        return name;
+    }
+
+    private String castType(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        } else {
+            return types.erasure(type).toString();
+        }
+    }
+
+    /**
+     * Same as the reflective lookup: public no-args "get" + capitalized field name, of the class or inherited, or "is" +
+     * capitalized field name if primitive boolean.
+     *
+     * @return name of the getter, or {@literal null} if not found.
+     */
+    private String getterOf(TypeElement type, VariableElement field) {
+        List<String> names = new ArrayList<>();
+        names.add(accessorName("get", field.getSimpleName().toString()));
+
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            names.add(accessorName("is", field.getSimpleName().toString()));
+        }
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+
+        for (String name : names) {
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(name)
+                        && method.getParameters().isEmpty()
+                        && method.getModifiers().contains(Modifier.PUBLIC)
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    return name;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Same as the reflective lookup: public "set" + capitalized field name declared by the class, taking the type of field.
+     *
+     * @return name of the setter, or {@literal null} if not found.
+     */
+    private String setterOf(TypeElement type, VariableElement field) {
+        String name = accessorName("set", field.getSimpleName().toString());
+        Types types = processingEnv.getTypeUtils();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().size() == 1
+                    && types.isSameType(types.erasure(method.getParameters().get(0).asType()), types.erasure(field.asType()))
+                    && method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC)) {
+                return name;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * "get"/"set"/"is" + capitalized field name.
+     */
+    private static String accessorName(String prefix, String fieldName) {
+        return prefix + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+}
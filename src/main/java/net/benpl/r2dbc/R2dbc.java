@@ -27,16 +27,29 @@ package net.benpl.r2dbc;
 import lombok.NonNull;
 import net.benpl.r2dbc.exception.R2dbcException;
 import net.benpl.r2dbc.support.H2;
+import net.benpl.r2dbc.support.Metrics;
 import net.benpl.r2dbc.support.Mssql;
 import net.benpl.r2dbc.support.Mysql;
 import net.benpl.r2dbc.support.Postgres;
+import net.benpl.r2dbc.support.Routing;
+import net.benpl.r2dbc.support.Sharding;
+import net.benpl.r2dbc.support.SlowQueryLog;
+import org.reactivestreams.Publisher;
 import org.springframework.data.r2dbc.core.DatabaseClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface R2dbc {
+    /**
+     * Since 1.2: default number of entities per batch of {@link #saveAll(Publisher, int)}.
+     */
+    int DEFAULT_BATCH_SIZE = 100;
+
     /**
      * Returns the number of entities available.
      *
@@ -45,6 +58,26 @@ public interface R2dbc {
      */
     <T> Mono<Long> count(Class<T> clazz);
 
+    /**
+     * Returns the number of entities available, exactly or estimated by statistics of database.
+     * (H2 has no such statistics, so always exact.)
+     *
+     * @param clazz the entity type.
+     * @param mode  how entities are counted.
+     * @return {@link Mono} emitting the number of entities.
+     */
+    <T> Mono<Long> count(Class<T> clazz, CountMode mode);
+
+    /**
+     * Returns the exact number of entities, counted at most {@code maxAge} ago. The latest count of each entity type is
+     * shared by callers outside of transactions. Within a transaction, entities are always counted.
+     *
+     * @param clazz  the entity type.
+     * @param maxAge how long a count is reused.
+     * @return {@link Mono} emitting the number of entities.
+     */
+    <T> Mono<Long> count(Class<T> clazz, Duration maxAge);
+
     /**
      * Returns whether an entity with the id exists.
      *
@@ -63,6 +96,48 @@ public interface R2dbc {
      */
     <T> Mono<T> save(T entity);
 
+    /**
+     * Saves a given entity by one single INSERT-or-UPDATE statement native to the database, instead of checking the
+     * existence first. Falls back to {@link #save(Object)} if the entity has no primary key, or the primary key is
+     * {@literal null}.
+     *
+     * @param entity must not be {@literal null}.
+     * @return {@link Mono} emitting the saved entity.
+     */
+    <T> Mono<T> upsert(T entity);
+
+    /**
+     * Saves all given entities in batches of {@value #DEFAULT_BATCH_SIZE}. See {@link #saveAll(Publisher, int)}.
+     *
+     * @param entities must not be {@literal null}.
+     * @return {@link Flux} emitting the saved entities.
+     */
+    <T> Flux<T> saveAll(Iterable<T> entities);
+
+    /**
+     * Saves all given entities in batches of {@value #DEFAULT_BATCH_SIZE}. See {@link #saveAll(Publisher, int)}.
+     *
+     * @param entities must not be {@literal null}.
+     * @return {@link Flux} emitting the saved entities.
+     */
+    <T> Flux<T> saveAll(Publisher<T> entities);
+
+    /**
+     * Saves all given entities. Entities are taken from the source in batches, and each batch is written with one
+     * statement per table, executed once per entity through {@link io.r2dbc.spi.Statement#add()}:
+     * <ul>
+     * <li>INSERT for entities without primary key, or with a NULL AUTO_INCREMENT primary key. Generated keys are set
+     * back to the entities in order.</li>
+     * <li>INSERT-or-UPDATE as {@link #upsert(Object)} for entities with primary key.</li>
+     * </ul>
+     * The next batch is requested from the source only after the current one is written.
+     *
+     * @param entities  must not be {@literal null}.
+     * @param batchSize the number of entities per batch.
+     * @return {@link Flux} emitting the saved entities, in the same order.
+     */
+    <T> Flux<T> saveAll(Publisher<T> entities, int batchSize);
+
     /**
      * Retrieves an entity by its id.
      *
@@ -72,6 +147,16 @@ public interface R2dbc {
      */
     <T> Mono<T> findById(Class<T> clazz, @NonNull Object id);
 
+    /**
+     * Retrieves entities by their ids, in chunks of IN queries. (Row value IN for composite primary key if supported)
+     * Entities are emitted in the order returned by database, not in the order of ids.
+     *
+     * @param clazz the entity type.
+     * @param ids   must not be {@literal null}, each id must not be {@literal null}.
+     * @return {@link Flux} emitting the entities found.
+     */
+    <T> Flux<T> findAllById(Class<T> clazz, Collection<?> ids);
+
     /**
      * Returns all instances of the type.
      *
@@ -80,6 +165,44 @@ public interface R2dbc {
      */
     <T> Flux<T> findAll(Class<T> clazz);
 
+    /**
+     * Returns all instances of the type, in the order of primary key, by one query per page. See
+     * {@link #streamAll(Class, Object, int)}.
+     *
+     * @param clazz    the entity type.
+     * @param pageSize the number of entities per query.
+     * @return {@link Flux} emitting all entities.
+     */
+    <T> Flux<T> findAll(Class<T> clazz, int pageSize);
+
+    /**
+     * Returns all instances of the type, scanning ranges of primary key at the same time. The range between MIN and
+     * MAX of the key is split evenly into {@code parallelism} ranges, each queried by its own statement (and its own
+     * connection, outside of transactions).
+     *
+     * @param clazz       the entity type, must have single integral primary key.
+     * @param parallelism the number of ranges scanned at the same time.
+     * @param ordered     if {@literal true}, entities are emitted in the order of primary key, with later ranges
+     *                    buffered meanwhile. Otherwise, in the order they arrive.
+     * @return {@link Flux} emitting all entities.
+     */
+    <T> Flux<T> findAllParallel(Class<T> clazz, int parallelism, boolean ordered);
+
+    /**
+     * Returns instances of the type after the given id, in the order of primary key. Each page is a short query
+     * starting after the last entity of the previous page (keyset pagination), and the next page is queried only when
+     * requested by the subscriber. To resume a stream, pass the id of the last entity received.
+     * <p>
+     * Unlike {@link #findAll(Class)}, no connection or snapshot is held between pages, so entities changed meanwhile
+     * may be seen or missed.
+     *
+     * @param clazz    the entity type, must have primary key.
+     * @param afterId  id of the entity to start after, or {@literal null} to start from the first one.
+     * @param pageSize the number of entities per query.
+     * @return {@link Flux} emitting the entities.
+     */
+    <T> Flux<T> streamAll(Class<T> clazz, Object afterId, int pageSize);
+
     /**
      * Deletes the given entity.
      *
@@ -90,12 +213,25 @@ public interface R2dbc {
 
     /**
      * Deletes the given entities.
+     * <p>
+     * Since 1.2: entities are deleted in chunks, each one statement within the bind parameter limit of database.
+     * Chunks are executed one after another.
      *
      * @param entities must not be {@literal null}.
      * @return {@link Mono} the number of entities deleted.
      */
     <T> Mono<Integer> deleteAll(List<T> entities);
 
+    /**
+     * Deletes the given entities, executing up to {@code concurrency} chunks at the same time.
+     * (Chunks within a transaction share the same connection, so the concurrency should be 1 there.)
+     *
+     * @param entities    must not be {@literal null}.
+     * @param concurrency the maximum number of chunks executed at the same time.
+     * @return {@link Mono} the number of entities deleted.
+     */
+    <T> Mono<Integer> deleteAll(List<T> entities, int concurrency);
+
     /**
      * Deletes the entity with the given id.
      *
@@ -149,21 +285,85 @@ public interface R2dbc {
      * @return Created {@link R2dbc} instance.
      */
     static R2dbc of(DatabaseClient databaseClient, Type type) {
+        return of(databaseClient, type, Metrics.NONE);
+    }
+
+    /**
+     * Since 1.2: initializes a {@link R2dbc} instance recording measurements of operations.
+     *
+     * @param databaseClient DatabaseClient instance.
+     * @param type           R2dbc type
+     * @param metrics        receives measurements of operations. (See {@link Metrics})
+     * @return Created {@link R2dbc} instance.
+     */
+    static R2dbc of(DatabaseClient databaseClient, Type type, Metrics metrics) {
+        return of(databaseClient, type, metrics, null);
+    }
+
+    /**
+     * Since 1.2: initializes a {@link R2dbc} instance recording measurements of operations, and logging slow
+     * statements.
+     *
+     * @param databaseClient DatabaseClient instance.
+     * @param type           R2dbc type
+     * @param metrics        receives measurements of operations. (See {@link Metrics})
+     * @param slowQueryLog   records statements by fingerprint, or {@literal null}. (See {@link SlowQueryLog})
+     * @return Created {@link R2dbc} instance.
+     */
+    static R2dbc of(DatabaseClient databaseClient, Type type, Metrics metrics, SlowQueryLog slowQueryLog) {
         switch (type) {
             case MYSQL:
-                return new Mysql(databaseClient);
+                return new Mysql(databaseClient, metrics, slowQueryLog);
 
             case PG:
-                return new Postgres(databaseClient);
+                return new Postgres(databaseClient, metrics, slowQueryLog);
 
             case MSSQL:
-                return new Mssql(databaseClient);
+                return new Mssql(databaseClient, metrics, slowQueryLog);
 
             case H2:
-                return new H2(databaseClient);
+                return new H2(databaseClient, metrics, slowQueryLog);
 
             default:
                 throw new R2dbcException("R2dbc: invalid type " + type + ".");
         }
     }
+
+    /**
+     * Since 1.2: initializes a {@link R2dbc} instance reading from replicas in turn. See
+     * {@link #of(DatabaseClient, List, Type, Routing.Balancing)}.
+     *
+     * @param primary  DatabaseClient instance of the primary database.
+     * @param replicas DatabaseClient instances of the replica databases.
+     * @param type     R2dbc type
+     * @return Created {@link R2dbc} instance.
+     */
+    static R2dbc of(DatabaseClient primary, List<DatabaseClient> replicas, Type type) {
+        return of(primary, replicas, type, Routing.Balancing.ROUND_ROBIN);
+    }
+
+    /**
+     * Since 1.2: initializes a {@link R2dbc} instance reading from replicas outside of transactions, and writing to
+     * the primary. (See {@link Routing})
+     *
+     * @param primary   DatabaseClient instance of the primary database.
+     * @param replicas  DatabaseClient instances of the replica databases.
+     * @param type      R2dbc type
+     * @param balancing how a replica is picked for each read.
+     * @return Created {@link R2dbc} instance.
+     */
+    static R2dbc of(DatabaseClient primary, List<DatabaseClient> replicas, Type type, Routing.Balancing balancing) {
+        return Routing.of(of(primary, type), replicas, balancing);
+    }
+
+    /**
+     * Since 1.2: initializes a {@link R2dbc} instance spreading entities over shards by primary key. (See {@link Sharding})
+     *
+     * @param shards DatabaseClient instances of the shards. The order decides the shard of entities, so it must not change.
+     * @param type   R2dbc type
+     * @return Created {@link R2dbc} instance.
+     */
+    static R2dbc sharded(List<DatabaseClient> shards, Type type) {
+        return new Sharding(shards.stream().map(shard -> of(shard, type)).collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Since 1.2: decides the shard of an entity by its primary key. (See {@link net.benpl.r2dbc.support.Sharding} &
+ * {@link net.benpl.r2dbc.annotation.Table#shardFunction()})
+ * <p>
+ * Implementations must have a public no-arg constructor, and must be stable: the same key always goes to the same
+ * shard, across restarts.
+ */
+public interface ShardFunction {
+
+    /**
+     * @param key    values of primary key, in the order of primary key columns. Integral numbers are given as Long.
+     * @param shards the number of shards.
+     * @return index of the shard, from 0 to shards - 1.
+     */
+    int shardOf(List<Object> key, int shards);
+
+    /**
+     * Default: hash of the key values, modulo number of shards.
+     * <p>
+     * Values are hashed in a form stable across JVMs: integral numbers as Long, enums by name, arrays by content, others
+     * (String, Long, etc.) by their specified hash codes.
+     */
+    class Hash implements ShardFunction {
+
+        @Override
+        public int shardOf(List<Object> key, int shards) {
+            // Combined as List.hashCode() does, then spread by murmur3 finalizer.
+            int h = 1;
+            for (Object value : key) {
+                h = 31 * h + hashOf(value);
+            }
+
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return Math.floorMod(h, shards);
+        }
+
+        private static int hashOf(Object value) {
+            if (value == null) {
+                return 0;
+            } else if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+                // Same as Long, whichever integral type the key is given in.
+                return Long.hashCode(((Number) value).longValue());
+            } else if (value instanceof Enum) {
+                // Identity hash code otherwise.
+                return ((Enum<?>) value).name().hashCode();
+            } else if (value instanceof byte[]) {
+                return Arrays.hashCode((byte[]) value);
+            } else if (value instanceof char[]) {
+                return Arrays.hashCode((char[]) value);
+            } else if (value instanceof short[]) {
+                return Arrays.hashCode((short[]) value);
+            } else if (value instanceof int[]) {
+                return Arrays.hashCode((int[]) value);
+            } else if (value instanceof long[]) {
+                return Arrays.hashCode((long[]) value);
+            } else if (value instanceof Object[]) {
+                return Arrays.deepHashCode((Object[]) value);
+            } else {
+                return value.hashCode();
+            }
+        }
+    }
+}
@@ -73,4 +73,12 @@ public @interface Column {
      * Is default value is available.
      */
     boolean noDefault() default false;
+
+    /**
+     * Since 1.2: if this column is the version of optimistic locking. (Short, Integer or Long)
+     * <p>
+     * Entity with NULL version is inserted with version 0. Otherwise it is updated only if the version in database is
+     * still the same, and the version is increased by 1.
+     */
+    boolean version() default false;
 }
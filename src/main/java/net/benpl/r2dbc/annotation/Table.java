@@ -24,6 +24,8 @@
 
 package net.benpl.r2dbc.annotation;
 
+import net.benpl.r2dbc.ShardFunction;
+
 import java.lang.annotation.*;
 
 /**
@@ -44,4 +46,40 @@ public @interface Table {
      * Should be "TABLE" or "VIEW".
      */
     String type();
+
+    /**
+     * Since 1.2: if UPDATE of save() writes changed columns only.
+     * <p>
+     * Entities loaded or saved are snapshotted. On next save, only columns changed since then are written, and no
+     * statement is issued at all if nothing changed. Changes are detected by {@link Object#equals(Object)}, so
+     * values must be replaced rather than modified in place.
+     */
+    boolean dynamicUpdate() default false;
+
+    /**
+     * Since 1.2: maximum number of entities kept in the cache of findById() & existsById(). 0 disables the cache.
+     * <p>
+     * Least recently used entities are evicted first. Cached entities are evicted by save/delete operations of the
+     * same R2dbc, but not by update()/execute() of arbitrary SQL, so it suits tables rarely changed.
+     */
+    int cacheSize() default 0;
+
+    /**
+     * Since 1.2: time to live (in seconds) of cached entities. 0 never expires. (See {@link #cacheSize()})
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * Since 1.2: if entities loaded within a transaction are kept by primary key until the transaction completed.
+     * <p>
+     * Within the same transaction, findById() returns the loaded instance without query, and findAll()/select() return
+     * the loaded instance for a row of the same primary key instead of a new one. Instances are dropped from the map by
+     * save/delete operations of the same R2dbc, but not by update()/execute() of arbitrary SQL.
+     */
+    boolean identityMap() default false;
+
+    /**
+     * Since 1.2: decides the shard of entities, if used through {@link net.benpl.r2dbc.support.Sharding}.
+     */
+    Class<? extends ShardFunction> shardFunction() default ShardFunction.Hash.class;
 }
@@ -24,77 +24,274 @@
 
 package net.benpl.r2dbc.support;
 
-import javafx.util.Pair;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
 import lombok.NonNull;
+import net.benpl.r2dbc.CountMode;
 import net.benpl.r2dbc.R2dbc;
 import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.exception.OptimisticLockException;
 import net.benpl.r2dbc.exception.R2dbcException;
+import net.benpl.r2dbc.support.Metrics.Operation;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.core.ConnectionAccessor;
 import org.springframework.data.r2dbc.core.DatabaseClient;
-import org.springframework.data.r2dbc.query.Criteria;
-import org.springframework.data.r2dbc.query.Update;
+import org.springframework.util.ClassUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 abstract class Abstract implements R2dbc {
 
     final DatabaseClient databaseClient;
 
+    /**
+     * Since 1.2: receives measurements of operations.
+     */
+    final Metrics metrics;
+
+    /**
+     * Since 1.2: records statements of {@link #execute0(String)} & {@link #byId(String, TableInfo, Object)}, or
+     * {@literal null} if disabled.
+     */
+    final SlowQueryLog slowQueryLog;
+
+    /**
+     * Since 1.2: entity caches of this instance, or of the primary if this is a replica. (See
+     * {@link net.benpl.r2dbc.annotation.Table#cacheSize()})
+     */
+    private final ClassValue<Optional<EntityCache<?>>> caches;
+
+    /**
+     * Since 1.2: if entities read are put into {@link #caches}. Replicas may lag behind the primary, so they only read
+     * the caches of the primary.
+     */
+    private final boolean populatesCaches;
+
+    /**
+     * Since 1.2: SQL texts of entities in the dialect of this instance.
+     */
+    private final ClassValue<EntitySql<?>> sqls = new ClassValue<EntitySql<?>>() {
+        @Override
+        protected EntitySql<?> computeValue(Class<?> clazz) {
+            return new EntitySql<>(Abstract.this, TableInfo.of(clazz));
+        }
+    };
+
+    /**
+     * Since 1.2: the latest exact counts, by entity type. (See {@link #count(Class, Duration)})
+     */
+    private final Map<Class<?>, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
     Abstract(DatabaseClient databaseClient) {
+        this(databaseClient, Metrics.NONE);
+    }
+
+    Abstract(DatabaseClient databaseClient, Metrics metrics) {
+        this(databaseClient, metrics, null);
+    }
+
+    Abstract(DatabaseClient databaseClient, Metrics metrics, SlowQueryLog slowQueryLog) {
         this.databaseClient = databaseClient;
+        this.metrics = metrics;
+        this.slowQueryLog = slowQueryLog;
+        this.caches = new ClassValue<Optional<EntityCache<?>>>() {
+            @Override
+            protected Optional<EntityCache<?>> computeValue(Class<?> clazz) {
+                TableInfo<?> tableInfo = TableInfo.of(clazz);
+                return tableInfo.cacheSize > 0 ? Optional.of(new EntityCache<>(tableInfo)) : Optional.empty();
+            }
+        };
+        this.populatesCaches = true;
     }
 
+    /**
+     * Since 1.2: replica of the primary, with the same settings. Reads the entity caches of the primary without
+     * populating them. (See {@link Routing})
+     */
+    Abstract(DatabaseClient replicaClient, Abstract primary) {
+        this.databaseClient = replicaClient;
+        this.metrics = primary.metrics;
+        this.slowQueryLog = primary.slowQueryLog;
+        this.caches = primary.caches;
+        this.populatesCaches = false;
+    }
+
+    /**
+     * Since 1.2: creates the replica of this instance on another database. (See {@link #Abstract(DatabaseClient, Abstract)})
+     */
+    abstract Abstract replica(DatabaseClient replicaClient);
+
     @Override
     public <T> Mono<Long> count(Class<T> clazz) {
-        TableInfo<T> tableInfo = TableInfo.of(clazz);
-        return execute0("SELECT COUNT(*) FROM `" + tableInfo.tableName + "`")
+        return measure(clazz, Operation.COUNT, 0, exactCount(TableInfo.of(clazz)), c -> 1, c -> 0);
+    }
+
+    /**
+     * Since 1.2: the exact count, not measured.
+     */
+    private Mono<Long> exactCount(TableInfo<?> tableInfo) {
+        return execute0(sqlOf(tableInfo).countSql)
                 .map(row -> ((Number) Objects.requireNonNull(row.get(0))).longValue())
                 .first();
     }
 
+    /**
+     * Since 1.2: falls back to exact count if the database has no statistics of the table.
+     */
     @Override
-    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
-        return byId("SELECT EXISTS(SELECT *", ")", clazz, id)
-                .map(row -> ((Number) Objects.requireNonNull(row.get(0))).intValue() == 1)
+    public <T> Mono<Long> count(Class<T> clazz, CountMode mode) {
+        String sql = approximateCountSql();
+
+        if (mode == CountMode.EXACT || sql == null) {
+            return count(clazz);
+        }
+
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        Mono<Optional<Number>> estimated = execute0(markers(sql), tableInfo.tableName)
+                .map(row -> Optional.ofNullable((Number) row.get(0)))
                 .first();
+
+        // Measured once, with the fallback.
+        Mono<Long> count = estimated
+                .filter(estimate -> estimate.isPresent() && estimate.get().longValue() >= 0)
+                .map(estimate -> estimate.get().longValue())
+                .switchIfEmpty(Mono.defer(() -> exactCount(tableInfo)));
+
+        return measure(clazz, Operation.COUNT, 1, count, c -> 1, c -> 0);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, Duration maxAge) {
+        long maxAgeNanos = maxAge.toNanos();
+
+        return Transactions.current()
+                .hasElement()
+                .flatMap(inTransaction -> {
+                    if (inTransaction) {
+                        // Uncommitted changes must not be seen by others.
+                        return count(clazz);
+                    }
+
+                    CachedCount cached = cachedCounts.get(clazz);
+
+                    if (cached != null && System.nanoTime() - cached.countedAt <= maxAgeNanos) {
+                        return Mono.just(cached.count);
+                    }
+
+                    long countedAt = System.nanoTime();
+
+                    return count(clazz).doOnNext(count -> cachedCounts.merge(clazz, new CachedCount(count, countedAt),
+                            (older, newer) -> newer.countedAt - older.countedAt > 0 ? newer : older));
+                });
+    }
+
+    /**
+     * Since 1.2: an exact count, and when it was started. (by {@link System#nanoTime()})
+     */
+    private static final class CachedCount {
+        private final long count;
+        private final long countedAt;
+
+        private CachedCount(long count, long countedAt) {
+            this.count = count;
+            this.countedAt = countedAt;
+        }
+    }
+
+    /**
+     * 1.2: TRUE if cached.
+     */
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        Mono<Boolean> exists = byId(sqlOf(tableInfo).existsByIdSql, tableInfo, id)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+
+        EntityCache<T> cache = cacheOf(tableInfo);
+
+        int bindParameters = tableInfo.allKeys.size();
+
+        if (cache == null) {
+            return measure(clazz, Operation.EXISTS_BY_ID, bindParameters, exists, found -> found ? 1 : 0, found -> 0);
+        }
+
+        List<Object> key = tableInfo.idKey(id);
+
+        Mono<Boolean> cachedOrExists = Transactions.current()
+                .hasElement()
+                .flatMap(inTransaction -> !inTransaction && cache.contains(key) ? Mono.just(true) : exists);
+
+        return measure(clazz, Operation.EXISTS_BY_ID, bindParameters, cachedOrExists, found -> found ? 1 : 0, found -> 0);
     }
 
     /**
      * 1.1: different implementations for cases of No Primary Key, Single Primary Key and Composite Primary Key.
+     * <p>
+     * 1.2: with {@link net.benpl.r2dbc.annotation.Table#dynamicUpdate()}, updates changed columns only of entity loaded
+     * or saved before, without checking the existence first.
+     * <p>
+     * 1.2: with {@link Column#version()}, INSERT or UPDATE is decided by the version, without checking the existence.
      */
     @Override
     public <T> Mono<T> save(@NonNull T entity) {
         TableInfo<T> tableInfo = TableInfo.of(entity);
+        return evicting(tableInfo, entity, save(tableInfo, entity));
+    }
 
+    private <T> Mono<T> save(TableInfo<T> tableInfo, T entity) {
         if (tableInfo.allKeys.isEmpty()) {
             // No primary key.
-            return insertSpec(tableInfo, entity)
-                    .fetch()
-                    .rowsUpdated()
-                    .thenReturn(entity);
+            return insert(tableInfo, entity);
         } else {
             if (tableInfo.isKeyNull(entity)) {
                 // Primary key is NULL
                 if (tableInfo.aiField != null) {
                     // Primary key is NULL, and AUTO_INCREMENT
-                    return insertSpec(tableInfo, entity)
-                            .map(row -> {
-                                Object value = tableInfo.aiValueFrom((Number) row.get(0));
-                                Utils.setFieldValue(entity, tableInfo.aiField, value);
-                                return entity;
-                            })
-                            .first();
+                    return insert(tableInfo, entity);
                 } else {
                     // Primary key is NULL, but NOT AUTO_INCREMENT
                     throw new R2dbcException("Table [" + tableInfo.tableName + "]: failed to save record. (primary key is NULL)");
                 }
             } else {
                 // Primary key is not NULL
+                if (tableInfo.versionField != null) {
+                    return saveVersioned(tableInfo, entity);
+                }
+
+                Object[] snapshot = tableInfo.dynamicUpdate ? Snapshots.get(entity) : null;
+
+                if (snapshot != null) {
+                    // Primary key is not NULL, and record loaded or saved before.
+                    List<String> dirtyKeys = tableInfo.dirtyKeys(entity, snapshot);
+
+                    if (dirtyKeys.isEmpty()) {
+                        return Mono.just(entity);
+                    }
+
+                    return executeUpdate(Operation.UPDATE, sqlOf(tableInfo).updateBinder(dirtyKeys), entity)
+                            .flatMap(count -> count > 0 ? Mono.just(snapshot(tableInfo, entity)) : insert(tableInfo, entity));
+                }
+
                 @SuppressWarnings("unchecked")
                 Class<T> clazz = (Class<T>) entity.getClass();
                 Object id = tableInfo.getId(entity);
@@ -103,26 +300,16 @@ abstract class Abstract implements R2dbc {
                         .flatMap((Function<Boolean, Mono<T>>) exists -> {
                             if (exists) {
                                 // Primary key is not NULL, and record exists.
-                                return updateSpec(tableInfo, entity)
-                                        .fetch()
-                                        .rowsUpdated()
-                                        .thenReturn(entity);
+                                if (tableInfo.nonKeys.isEmpty()) {
+                                    return Mono.just(snapshot(tableInfo, entity));
+                                }
+
+                                return executeUpdate(Operation.UPDATE, sqlOf(tableInfo).updateBinder(tableInfo.nonKeys), entity)
+                                        .thenReturn(entity)
+                                        .map(saved -> snapshot(tableInfo, saved));
                             } else {
                                 // Primary key is not NULL, and record NOT exists.
-                                if (tableInfo.aiField != null) {
-                                    return insertSpec(tableInfo, entity)
-                                            .map(row -> {
-                                                Object value = tableInfo.aiValueFrom((Number) row.get(0));
-                                                Utils.setFieldValue(entity, tableInfo.aiField, value);
-                                                return entity;
-                                            })
-                                            .first();
-                                } else {
-                                    return insertSpec(tableInfo, entity)
-                                            .fetch()
-                                            .rowsUpdated()
-                                            .thenReturn(entity);
-                                }
+                                return insert(tableInfo, entity);
                             }
                         })
                         .single();
@@ -130,138 +317,611 @@ abstract class Abstract implements R2dbc {
         }
     }
 
+    /**
+     * Since 1.2: INSERT if version is NULL, otherwise UPDATE ... SET version = version + 1 WHERE ... AND version = ?
+     */
+    private <T> Mono<T> saveVersioned(TableInfo<T> tableInfo, T entity) {
+        Number version = (Number) Utils.getFieldValue(entity, tableInfo.versionField);
+
+        if (version == null) {
+            // New record.
+            return insert(tableInfo, entity);
+        }
+
+        List<String> columns;
+        Object[] snapshot = tableInfo.dynamicUpdate ? Snapshots.get(entity) : null;
+
+        if (snapshot != null) {
+            columns = tableInfo.dirtyKeys(entity, snapshot);
+
+            if (columns.isEmpty()) {
+                return Mono.just(entity);
+            }
+        } else {
+            columns = tableInfo.nonVersionKeys;
+        }
+
+        return executeUpdate(Operation.UPDATE, sqlOf(tableInfo).versionedUpdateBinder(columns), entity)
+                .map(count -> {
+                    if (count == 0) {
+                        throw new OptimisticLockException("Table [" + tableInfo.tableName + "]: record " + tableInfo.getIdValues(tableInfo.getId(entity)) + " was updated or deleted by others. (version " + version + ")");
+                    }
+
+                    Utils.setFieldValue(entity, tableInfo.versionField, tableInfo.versionValueFrom(version.longValue() + 1));
+                    return snapshot(tableInfo, entity);
+                });
+    }
+
+    /**
+     * Since 1.2: initializes NULL version to 0 before INSERT.
+     */
+    private <T> void initVersion(TableInfo<T> tableInfo, T entity) {
+        if (tableInfo.versionField != null && Utils.getFieldValue(entity, tableInfo.versionField) == null) {
+            Utils.setFieldValue(entity, tableInfo.versionField, tableInfo.versionValueFrom(0));
+        }
+    }
+
+    /**
+     * Since 1.2: INSERT entity, and sets the generated key back if AUTO_INCREMENT.
+     * <p>
+     * 1.2: executed as a batch of one entity, so the generated key is returned the same way. (See {@link #generatedKeyInSql()})
+     */
+    private <T> Mono<T> insert(TableInfo<T> tableInfo, T entity) {
+        initVersion(tableInfo, entity);
+
+        Batch<T> batch = new Batch<>(tableInfo, false, tableInfo.columnsOf(entity));
+        batch.entities.add(entity);
+
+        return executeBatch0(batch).thenReturn(entity);
+    }
+
+    /**
+     * Since 1.2: takes snapshot of entity if {@link net.benpl.r2dbc.annotation.Table#dynamicUpdate()}.
+     */
+    <T> T snapshot(TableInfo<T> tableInfo, T entity) {
+        if (tableInfo.dynamicUpdate) {
+            Snapshots.take(tableInfo, entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Mono<T> upsert(@NonNull T entity) {
+        TableInfo<T> tableInfo = TableInfo.of(entity);
+
+        if (tableInfo.allKeys.isEmpty() || tableInfo.isKeyNull(entity) || tableInfo.versionField != null) {
+            // Nothing to merge with, or version to be checked.
+            return save(entity);
+        }
+
+        Batch<T> batch = new Batch<>(tableInfo, true, tableInfo.columnsOf(entity));
+        batch.entities.add(entity);
+
+        Mono<T> upserted = executeBatch0(batch).thenReturn(entity);
+
+        return evicting(tableInfo, entity, upserted);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Flux<T> saveAll(Iterable<T> entities) {
+        return saveAll(Flux.fromIterable(entities), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities) {
+        return saveAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new R2dbcException("saveAll: invalid batch size " + batchSize + ".");
+        }
+
+        return Flux.from(entities)
+                .buffer(batchSize)
+                .concatMap(this::saveBatch, 1);
+    }
+
+    /**
+     * Groups entities by table, statement kind & written columns, then executes one batched statement per group.
+     */
+    private <T> Flux<T> saveBatch(List<T> entities) {
+        Map<List<Object>, Batch<T>> batches = new LinkedHashMap<>();
+
+        // Entities with version are updated one by one, since the version must be checked.
+        List<T> versioned = new ArrayList<>();
+
+        for (T entity : entities) {
+            TableInfo<T> tableInfo = TableInfo.of(entity);
+
+            boolean upsert;
+
+            if (tableInfo.allKeys.isEmpty()) {
+                // No primary key.
+                upsert = false;
+            } else if (tableInfo.isKeyNull(entity)) {
+                if (tableInfo.aiField == null) {
+                    // Primary key is NULL, but NOT AUTO_INCREMENT
+                    throw new R2dbcException("Table [" + tableInfo.tableName + "]: failed to save record. (primary key is NULL)");
+                }
+                upsert = false;
+            } else if (tableInfo.versionField != null) {
+                versioned.add(entity);
+                continue;
+            } else {
+                upsert = true;
+            }
+
+            if (!upsert) {
+                initVersion(tableInfo, entity);
+            }
+
+            List<String> columns = tableInfo.columnsOf(entity);
+
+            batches.computeIfAbsent(Arrays.asList(tableInfo, upsert, columns), key -> new Batch<>(tableInfo, upsert, columns))
+                    .entities
+                    .add(entity);
+        }
+
+        return Flux.fromIterable(batches.values())
+                .concatMap(this::executeBatch)
+                .thenMany(Flux.fromIterable(versioned).concatMap(this::save))
+                .thenMany(Flux.fromIterable(entities));
+    }
+
+    private <T> Mono<Void> executeBatch(Batch<T> batch) {
+        TableInfo<T> tableInfo = batch.tableInfo;
+
+        if (!batch.upsert) {
+            return executeBatch0(batch);
+        }
+
+        List<List<Object>> keys = batch.entities.stream().map(tableInfo::entityKey).collect(Collectors.toList());
+        return invalidate(tableInfo, keys, executeBatch0(batch));
+    }
+
+    private <T> Mono<Void> executeBatch0(Batch<T> batch) {
+        TableInfo<T> tableInfo = batch.tableInfo;
+        List<String> columns = batch.columns;
+
+        EntitySql<T> entitySql = sqlOf(tableInfo);
+
+        // Returns generated key only when AUTO_INCREMENT column is not given.
+        boolean generated = !batch.upsert && entitySql.generatesKey(columns);
+
+        Binder<T> binder = batch.upsert ? entitySql.upsertBinder(columns) : entitySql.insertBinder(columns);
+
+        Mono<Integer> executed = inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(binder.sql);
+
+            if (generated && !generatedKeyInSql()) {
+                statement.returnGeneratedValues(tableInfo.aiKey);
+            }
+
+            for (int i = 0; i < batch.entities.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+
+                binder.bind(statement, 0, batch.entities.get(i));
+            }
+
+            Flux<? extends Result> results = Flux.from(statement.execute());
+
+            if (generated) {
+                return results
+                        .concatMap(result -> result.map((row, metadata) -> (Number) row.get(0)))
+                        .zipWithIterable(batch.entities, (id, entity) -> {
+                            Utils.setFieldValue(entity, tableInfo.aiField, tableInfo.aiValueFrom(id));
+                            return entity;
+                        });
+            } else {
+                return results.concatMap(Result::getRowsUpdated);
+            }
+        }).then(Mono.fromCallable(() -> {
+            batch.entities.forEach(entity -> snapshot(tableInfo, entity));
+            return batch.entities.size();
+        }));
+
+        Operation operation = batch.upsert ? Operation.UPSERT : Operation.INSERT;
+
+        return measure(tableInfo.clazz, operation, binder.size() * batch.entities.size(), executed, count -> 0, count -> count)
+                .then();
+    }
+
+    /**
+     * Entities to be written by the same statement.
+     */
+    private static class Batch<T> {
+        private final TableInfo<T> tableInfo;
+        private final boolean upsert;
+        private final List<String> columns;
+        private final List<T> entities = new ArrayList<>();
+
+        private Batch(TableInfo<T> tableInfo, boolean upsert, List<String> columns) {
+            this.tableInfo = tableInfo;
+            this.upsert = upsert;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * 1.2: served from cache if enabled, except within transactions.
+     * <p>
+     * 1.2: served from identity map if enabled, within transactions.
+     */
     @Override
     public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
-        return byId("SELECT *", "", clazz, id)
-                .map(new RowMapper<>(clazz))
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+        RowMapper<T> rowMapper = RowMapper.of(clazz);
+
+        Function<BiFunction<Row, RowMetadata, T>, Mono<T>> query = mapper -> byId(sqlOf(tableInfo).findByIdSql, tableInfo, id)
+                .map(mapper)
                 .first();
+
+        EntityCache<T> cache = cacheOf(tableInfo);
+
+        int bindParameters = tableInfo.allKeys.size();
+
+        if (cache == null && !rowMapper.identityMapped) {
+            return measure(clazz, Operation.FIND_BY_ID, bindParameters, query.apply(rowMapper), found -> 1, found -> 0);
+        }
+
+        List<Object> key = tableInfo.idKey(id);
+
+        Mono<T> found = Transactions.current()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(tsm -> {
+                    if (tsm.isPresent()) {
+                        // Uncommitted data must not be cached.
+                        if (!rowMapper.identityMapped) {
+                            return query.apply(rowMapper);
+                        }
+
+                        return IdentityMap.of(tsm.get()).flatMap(identityMap -> {
+                            T loaded = identityMap.get(clazz, key);
+                            return loaded != null ? Mono.just(loaded) : query.apply(rowMapper.with(identityMap));
+                        });
+                    }
+
+                    if (cache == null) {
+                        return query.apply(rowMapper);
+                    }
+
+                    T cached = cache.get(key);
+
+                    if (cached != null) {
+                        return Mono.just(snapshot(tableInfo, cached));
+                    }
+
+                    if (!populatesCaches) {
+                        return query.apply(rowMapper);
+                    }
+
+                    long generation = cache.generation();
+                    return query.apply(rowMapper).doOnNext(entity -> cache.put(key, entity, generation));
+                });
+
+        return measure(clazz, Operation.FIND_BY_ID, bindParameters, found, entity -> 1, entity -> 0);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Flux<T> findAllById(Class<T> clazz, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        List<String> keys = tableInfo.allKeys;
+
+        if (keys.isEmpty()) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: primary key not found.");
+        }
+
+        List<?> idList = new ArrayList<>(ids);
+        int chunkSize = chunkSize(keys.size());
+
+        Flux<T> found = Flux.range(0, (idList.size() + chunkSize - 1) / chunkSize)
+                .map(i -> idList.subList(i * chunkSize, Math.min(idList.size(), (i + 1) * chunkSize)))
+                .concatMap(chunk -> {
+                    List<Param> params = new ArrayList<>(chunk.size() * keys.size());
+
+                    for (Object id : chunk) {
+                        for (Map.Entry<String, Object> entry : tableInfo.getIdValues(id).entrySet()) {
+                            params.add(new Param(tableInfo.allFields.get(entry.getKey()).getType(), entry.getValue()));
+                        }
+                    }
+
+                    String sql = markers(sqlOf(tableInfo).findAllSql + " WHERE " + inClause(keys, chunk.size()));
+
+                    return mapAll(clazz, execute0(sql, params));
+                });
+
+        return measureMany(clazz, Operation.FIND_ALL_BY_ID, idList.size() * keys.size(), found);
     }
 
     @Override
     public <T> Flux<T> findAll(Class<T> clazz) {
         TableInfo<T> tableInfo = TableInfo.of(clazz);
-        String sql = "SELECT * FROM `" + tableInfo.tableName + "`";
-        return execute0(sql)
-                .map(new RowMapper<>(clazz))
-                .all();
+        return measureMany(clazz, Operation.FIND_ALL, 0, mapAll(clazz, execute0(sqlOf(tableInfo).findAllSql)));
     }
 
+    /**
+     * Since 1.2: ranges are split evenly between MIN and MAX of the key, and each is queried by
+     * "WHERE key >= ? AND key <= ?".
+     */
     @Override
-    public <T> Mono<Boolean> delete(@NonNull T entity) {
-        TableInfo<T> tableInfo = TableInfo.of(entity);
+    public <T> Flux<T> findAllParallel(Class<T> clazz, int parallelism, boolean ordered) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
 
-        Collection<String> keys = tableInfo.allKeys;
-        Map<String, Field> allFields = tableInfo.allFields;
+        if (tableInfo.allKeys.size() != 1) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: parallel scan requires single column primary key.");
+        }
 
-        String clauseStr;
-        List<Pair<? extends Class<?>, Object>> params;
+        String key = tableInfo.allKeys.get(0);
+        Class<?> keyType = ClassUtils.resolvePrimitiveIfNecessary(tableInfo.allFields.get(key).getType());
+
+        if (keyType != Long.class && keyType != Integer.class && keyType != Short.class && keyType != Byte.class) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: parallel scan requires integral primary key.");
+        }
+
+        if (parallelism <= 0) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: invalid parallelism " + parallelism + ".");
+        }
+
+        String keyStr = quote(key);
+        String rangeSql = markers(sqlOf(tableInfo).findAllSql + " WHERE " + keyStr + " >= ? AND " + keyStr + " <= ?" + (ordered ? " ORDER BY " + keyStr : ""));
+
+        return execute0("SELECT MIN(" + keyStr + "), MAX(" + keyStr + ") FROM " + quote(tableInfo.tableName))
+                .map(row -> {
+                    Number min = (Number) row.get(0);
+                    Number max = (Number) row.get(1);
+                    // Both NULL if table is empty.
+                    return min == null || max == null ? Collections.<long[]>emptyList() : ranges(min.longValue(), max.longValue(), parallelism);
+                })
+                .first()
+                .flatMapMany(ranges -> {
+                    List<Flux<T>> scans = new ArrayList<>(ranges.size());
+
+                    for (long[] range : ranges) {
+                        List<Param> params = Arrays.asList(
+                                new Param(keyType, keyValue(keyType, range[0])),
+                                new Param(keyType, keyValue(keyType, range[1])));
+                        scans.add(measureMany(clazz, Operation.FIND_ALL, params.size(), mapAll(clazz, execute0(rangeSql, params))));
+                    }
+
+                    // All ranges are subscribed at once. If ordered, later ranges are buffered until earlier ones complete.
+                    return ordered
+                            ? Flux.fromIterable(scans).flatMapSequential(Function.identity(), scans.size())
+                            : Flux.fromIterable(scans).flatMap(Function.identity(), scans.size());
+                });
+    }
+
+    /**
+     * Since 1.2: splits [min, max] into up to n consecutive ranges of inclusive bounds.
+     */
+    static List<long[]> ranges(long min, long max, int n) {
+        BigInteger lower = BigInteger.valueOf(min);
+        BigInteger span = BigInteger.valueOf(max).subtract(lower).add(BigInteger.ONE);
+        BigInteger count = span.min(BigInteger.valueOf(n));
+
+        List<long[]> ranges = new ArrayList<>(count.intValue());
+
+        for (int i = 0; i < count.intValue(); i++) {
+            long from = lower.add(span.multiply(BigInteger.valueOf(i)).divide(count)).longValueExact();
+            long to = lower.add(span.multiply(BigInteger.valueOf(i + 1)).divide(count)).subtract(BigInteger.ONE).longValueExact();
+            ranges.add(new long[]{from, to});
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Since 1.2: long value as the type of key field.
+     */
+    private static Object keyValue(Class<?> keyType, long value) {
+        if (keyType == Integer.class) {
+            return (int) value;
+        } else if (keyType == Short.class) {
+            return (short) value;
+        } else if (keyType == Byte.class) {
+            return (byte) value;
+        }
+        return value;
+    }
+
+    /**
+     * Since 1.2.
+     */
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz, int pageSize) {
+        return streamAll(clazz, null, pageSize);
+    }
+
+    /**
+     * Since 1.2: pages are queried by "WHERE key > last key ORDER BY key", where the key comparison is:
+     * <ul>
+     * <li>x > ? if single column.</li>
+     * <li>(x, y) > (?, ?) if supported by database.</li>
+     * <li>(x > ?) OR (x = ? AND y > ?) otherwise.</li>
+     * </ul>
+     */
+    @Override
+    public <T> Flux<T> streamAll(Class<T> clazz, Object afterId, int pageSize) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        List<String> keys = tableInfo.allKeys;
 
         if (keys.isEmpty()) {
-            keys = allFields.keySet();
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: primary key not found.");
+        }
+
+        if (pageSize <= 0) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: invalid page size " + pageSize + ".");
         }
 
-        // (x = ? AND y = ? , ...)
-        clauseStr = keys.stream()
-                .map(key -> "`" + key + "` = ?")
-                .collect(Collectors.joining(" AND "));
-        params = keys.stream()
-                .map(key -> {
-                    Field field = allFields.get(key);
-                    return new Pair<>(field.getType(), Utils.getFieldValue(entity, field));
+        String orderStr = " ORDER BY " + keys.stream().map(this::quote).collect(Collectors.joining(", ")) + " " + limitClause(pageSize);
+        String firstSql = sqlOf(tableInfo).findAllSql + orderStr;
+        String nextSql = markers(sqlOf(tableInfo).findAllSql + " WHERE " + afterClause(keys) + orderStr);
+
+        Function<Map<String, Object>, Mono<List<T>>> page = after -> {
+            if (after == null) {
+                return measureMany(clazz, Operation.FIND_ALL, 0, mapAll(clazz, execute0(firstSql))).collectList();
+            }
+
+            List<Param> keyParams = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                keyParams.add(new Param(tableInfo.allFields.get(key).getType(), after.get(key)));
+            }
+
+            List<Param> params = afterParams(keyParams);
+            return measureMany(clazz, Operation.FIND_ALL, params.size(), mapAll(clazz, execute0(nextSql, params))).collectList();
+        };
+
+        return page.apply(afterId == null ? null : tableInfo.getIdValues(afterId))
+                .expand(entities -> {
+                    if (entities.size() < pageSize) {
+                        return Mono.empty();
+                    }
+
+                    T last = entities.get(entities.size() - 1);
+
+                    Map<String, Object> after = new LinkedHashMap<>();
+                    for (String key : keys) {
+                        after.put(key, Utils.getFieldValue(last, tableInfo.allFields.get(key)));
+                    }
+
+                    return page.apply(after);
                 })
-                .collect(Collectors.toList());
+                // One page at a time, so the next page is queried only when downstream demands it.
+                .flatMapIterable(Function.identity(), 1);
+    }
 
-        String sql = "DELETE FROM `" + tableInfo.tableName + "` WHERE " + clauseStr;
+    @Override
+    public <T> Mono<Boolean> delete(@NonNull T entity) {
+        TableInfo<T> tableInfo = TableInfo.of(entity);
 
-        return execute0(sql, params)
-                .fetch()
-                .rowsUpdated()
+        Mono<Boolean> deleted = executeUpdate(Operation.DELETE, sqlOf(tableInfo).deleteBinder, entity)
                 .map(count -> count == 1);
+
+        return evicting(tableInfo, entity, deleted);
     }
 
     @Override
     public <T> Mono<Integer> deleteAll(List<T> entities) {
+        return deleteAll(entities, 1);
+    }
+
+    /**
+     * Since 1.2: deletes in chunks. Each chunk matches on primary key (or all columns if no primary key) by:
+     * <ul>
+     * <li>x IN (?, ?, ...) if single column.</li>
+     * <li>(x, y) IN ((?, ?), ...) if supported by database.</li>
+     * <li>(x = ? AND y = ?) OR (x = ? AND y = ?) OR ... otherwise.</li>
+     * </ul>
+     */
+    @Override
+    public <T> Mono<Integer> deleteAll(List<T> entities, int concurrency) {
+        if (concurrency <= 0) {
+            throw new R2dbcException("deleteAll: invalid concurrency " + concurrency + ".");
+        }
+
+        if (entities.isEmpty()) {
+            return Mono.just(0);
+        }
+
         TableInfo<T> tableInfo = TableInfo.of(entities.get(0));
 
-        List<String> allKeys = tableInfo.allKeys;
-        Map<String, Field> allFields = tableInfo.allFields;
+        List<String> keys = tableInfo.deleteKeys;
 
-        String clauseStr;
-        List<Pair<? extends Class<?>, Object>> params;
+        int chunkSize = chunkSize(keys.size());
 
-        if (allKeys.isEmpty()) {
-            // No primary key.
-            // (x = ? AND y = ? , ...)
-            String valueStr = allFields.keySet().stream()
-                    .map(key -> "`" + key + "` = ?")
-                    .collect(Collectors.joining(" AND ", "(", ")"));
-            // (x = ? AND y = ? , ...) OR (x = ? AND y = ? , ...) OR ...
-            clauseStr = String.join(" OR ", Collections.nCopies(entities.size(), valueStr));
-            params = entities.stream()
-                    .flatMap(entity -> allFields.keySet().stream()
-                            .map(key -> {
-                                Field field = allFields.get(key);
-                                return new Pair<>(field.getType(), Utils.getFieldValue(entity, field));
-                            }))
-                    .collect(Collectors.toList());
-        } else if (allKeys.size() == 1) {
-            // Single primary key.
-            String key = allKeys.get(0);
-            clauseStr = "`" + key + "` IN (" + String.join(", ", Collections.nCopies(entities.size(), "?")) + ")";
-            params = entities.stream()
-                    .map(entity -> {
-                        Field field = allFields.get(key);
-                        return new Pair<>(field.getType(), Utils.getFieldValue(entity, field));
-                    })
-                    .collect(Collectors.toList());
-        } else {
-            // Compite primary key.
-            // (x = ? AND y = ? , ...)
-            String valueStr = allKeys.stream()
-                    .map(key -> "`" + key + "` = ?")
-                    .collect(Collectors.joining(" AND ", "(", ")"));
-            // (x = ? AND y = ? , ...) OR (x = ? AND y = ? , ...) OR ...
-            clauseStr = String.join(" OR ", Collections.nCopies(entities.size(), valueStr));
-            params = entities.stream()
-                    .flatMap(entity -> allKeys.stream()
-                            .map(key -> {
-                                Field field = allFields.get(key);
-                                return new Pair<>(field.getType(), Utils.getFieldValue(entity, field));
-                            }))
-                    .collect(Collectors.toList());
-        }
-
-        String sql = "DELETE FROM `" + tableInfo.tableName + "` WHERE " + clauseStr;
+        Mono<Integer> deleted = Flux.range(0, (entities.size() + chunkSize - 1) / chunkSize)
+                .map(i -> entities.subList(i * chunkSize, Math.min(entities.size(), (i + 1) * chunkSize)))
+                .flatMap(chunk -> execute0(deleteAllSql(tableInfo, chunk.size()), deleteAllParams(tableInfo, chunk))
+                        .fetch()
+                        .rowsUpdated(), concurrency)
+                .reduce(0, Integer::sum);
 
-        return execute0(sql, params)
-                .fetch()
-                .rowsUpdated();
+        deleted = measure(tableInfo.clazz, Operation.DELETE_ALL, entities.size() * keys.size(), deleted, count -> 0, count -> count);
+
+        if (tableInfo.allKeys.isEmpty()) {
+            return deleted;
+        }
+
+        return invalidate(tableInfo, entities.stream().map(tableInfo::entityKey).collect(Collectors.toList()), deleted);
+    }
+
+    /**
+     * Since 1.2: DELETE statement of a chunk of {@link #deleteAll(List, int)}.
+     */
+    <T> String deleteAllSql(TableInfo<T> tableInfo, int count) {
+        return markers(sqlOf(tableInfo).deleteAllSql + " WHERE " + inClause(tableInfo.deleteKeys, count));
+    }
+
+    /**
+     * Since 1.2: bind parameters of a chunk of {@link #deleteAll(List, int)}, in the order of {@link #deleteAllSql(TableInfo, int)}.
+     */
+    <T> List<Param> deleteAllParams(TableInfo<T> tableInfo, List<T> chunk) {
+        List<String> keys = tableInfo.deleteKeys;
+        List<Param> params = new ArrayList<>(chunk.size() * keys.size());
+
+        for (T entity : chunk) {
+            for (String key : keys) {
+                Field field = tableInfo.allFields.get(key);
+                params.add(new Param(field.getType(), Utils.getFieldValue(entity, field)));
+            }
+        }
+
+        return params;
     }
 
     @Override
     public <T> Mono<Boolean> deleteById(Class<T> clazz, @NonNull Object id) {
-        return byId("DELETE", "", clazz, id)
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        Mono<Integer> rowsUpdated = byId(sqlOf(tableInfo).deleteByIdSql, tableInfo, id)
                 .fetch()
-                .rowsUpdated()
+                .rowsUpdated();
+
+        Mono<Boolean> deleted = measure(clazz, Operation.DELETE, tableInfo.allKeys.size(), rowsUpdated, count -> 0, count -> count)
                 .map(count -> count == 1);
+
+        return invalidate(tableInfo, Collections.singletonList(tableInfo.idKey(id)), deleted);
     }
 
     @Override
     public <T> Mono<Integer> deleteAll(Class<T> clazz) {
-        TableInfo<?> tableInfo = TableInfo.of(clazz);
-
-        String sql = "DELETE FROM `" + tableInfo.tableName + "`";
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
 
-        return execute0(sql)
+        Mono<Integer> deleted = execute0(sqlOf(tableInfo).deleteAllSql)
                 .fetch()
                 .rowsUpdated();
+
+        return invalidate(tableInfo, null, measure(clazz, Operation.DELETE_ALL, 0, deleted, count -> 0, count -> count));
     }
 
     @Override
     public <T> Flux<T> select(Class<T> clazz, String sql, Object... params) {
-        return execute0(sql, params)
-                .map(new RowMapper<>(clazz))
-                .all();
+        return measureMany(clazz, Operation.SELECT, params.length, mapAll(clazz, execute0(sql, params)));
     }
 
     @Override
@@ -276,23 +936,20 @@ abstract class Abstract implements R2dbc {
         return execute0(sql, params);
     }
 
-    <T> DatabaseClient.GenericExecuteSpec byId(@NonNull String prefix, @NonNull String suffix, Class<T> clazz, @NonNull Object id) {
-        TableInfo<T> tableInfo = TableInfo.of(clazz);
-
+    /**
+     * 1.2: binds the id onto one of precompiled SQL of {@link TableInfo}.
+     */
+    <T> DatabaseClient.GenericExecuteSpec byId(@NonNull String sql, TableInfo<T> tableInfo, @NonNull Object id) {
         Map<String, Object> values = tableInfo.getIdValues(id);
-        Set<String> keys = values.keySet();
-
-        String clauseStr = keys.stream().map(key -> "`" + key + "` = ?").collect(Collectors.joining(", "));
-        String sql = prefix + " FROM `" + tableInfo.tableName + "` WHERE " + clauseStr + suffix;
-        DatabaseClient.GenericExecuteSpec executeSpec = databaseClient.execute(sql);
+        DatabaseClient.GenericExecuteSpec executeSpec = prepare(sql);
 
         int i = 0;
 
-        for (String key : keys) {
-            Object value = values.get(key);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
 
             if (value == null) {
-                executeSpec = executeSpec.bindNull(i, tableInfo.allFields.get(key).getType());
+                executeSpec = executeSpec.bindNull(i, tableInfo.allFields.get(entry.getKey()).getType());
             } else {
                 executeSpec = executeSpec.bind(i, value);
             }
@@ -303,90 +960,370 @@ abstract class Abstract implements R2dbc {
         return executeSpec;
     }
 
-    DatabaseClient.GenericExecuteSpec execute0(String sql) {
-        return databaseClient.execute(sql);
+    /**
+     * Since 1.2: SQL texts of entity in the dialect of this instance.
+     */
+    <T> EntitySql<T> sqlOf(TableInfo<T> tableInfo) {
+        @SuppressWarnings("unchecked")
+        EntitySql<T> entitySql = (EntitySql<T>) sqls.get(tableInfo.clazz);
+        return entitySql;
     }
 
     /**
-     * @param params each parameter MUST NOT be null
+     * Since 1.2: the entity cache, or {@literal null} if not enabled.
      */
-    DatabaseClient.GenericExecuteSpec execute0(String sql, Object... params) {
-        List<Pair<? extends Class<?>, Object>> pairs = Stream.of(params).map(param -> new Pair<>(param.getClass(), param)).collect(Collectors.toList());
-        return execute0(sql, pairs);
+    <T> EntityCache<T> cacheOf(TableInfo<T> tableInfo) {
+        @SuppressWarnings("unchecked")
+        EntityCache<T> cache = (EntityCache<T>) caches.get(tableInfo.clazz).orElse(null);
+        return cache;
     }
 
     /**
-     * Since 1.1.
+     * Since 1.2: maps rows of query, through the identity map of current transaction if enabled.
      */
-    private DatabaseClient.GenericExecuteSpec execute0(String sql, List<Pair<? extends Class<?>, Object>> params) {
-        DatabaseClient.GenericExecuteSpec execute = databaseClient.execute(sql);
+    <T> Flux<T> mapAll(Class<T> clazz, DatabaseClient.GenericExecuteSpec executeSpec) {
+        RowMapper<T> rowMapper = RowMapper.of(clazz);
 
-        for (int i = 0; i < params.size(); i++) {
-            Pair<? extends Class<?>, Object> pair = params.get(i);
-            Object value = pair.getValue();
+        if (!rowMapper.identityMapped) {
+            return executeSpec.map(rowMapper).all();
+        }
 
-            execute = (value == null) ? execute.bindNull(i, pair.getKey()) : execute.bind(i, value);
+        return IdentityMap.current()
+                .flatMapMany(identityMap -> executeSpec.map(rowMapper.with(identityMap.orElse(null))).all());
+    }
+
+    /**
+     * Since 1.2: evicts cached entity after written.
+     */
+    private <T, R> Mono<R> evicting(TableInfo<T> tableInfo, T entity, Mono<R> write) {
+        if (tableInfo.allKeys.isEmpty() || tableInfo.isKeyNull(entity)) {
+            return write;
         }
 
-        return execute;
+        return invalidate(tableInfo, Collections.singletonList(tableInfo.entityKey(entity)), write);
     }
 
-    <T> DatabaseClient.GenericInsertSpec<Map<String, Object>> insertSpec(TableInfo<T> tableInfo, T entity) {
-        DatabaseClient.GenericInsertSpec<Map<String, Object>> insertSpec = databaseClient.insert().into(tableInfo.tableName);
+    /**
+     * Since 1.2: evicts cached entities after written, and again after the current transaction completed if any.
+     * <p>
+     * Also removes them from the identity map of current transaction.
+     *
+     * @param keys keys to be evicted, or {@literal null} for all.
+     */
+    private <T, R> Mono<R> invalidate(TableInfo<T> tableInfo, List<List<Object>> keys, Mono<R> write) {
+        EntityCache<T> cache = cacheOf(tableInfo);
+        boolean identityMapped = RowMapper.of(tableInfo.clazz).identityMapped;
 
-        for (String key : tableInfo.allFields.keySet()) {
-            Field field = tableInfo.allFields.get(key);
-            Column column = tableInfo.allColumns.get(key);
-            Object value = Utils.getFieldValue(entity, field);
+        if (cache == null && !identityMapped) {
+            return write;
+        }
 
-            if (value == null) {
-                if (column.nullable()) {
-                    insertSpec = insertSpec.nullValue(key, field.getType());
-                } else {
-                    if (column.noDefault()) {
-                        throw new R2dbcException("Table [" + tableInfo.tableName + "]: " + column.value() + " cannot be set to NULL.");
+        Runnable evict = () -> {
+            if (cache == null) {
+                return;
+            }
+            if (keys == null) {
+                cache.clear();
+            } else {
+                keys.forEach(cache::evict);
+            }
+        };
+
+        return Transactions.current()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(tsm -> {
+                    tsm.ifPresent(it -> Transactions.afterCompletion(it, evict));
+
+                    Mono<R> evicted = write.doFinally(signal -> evict.run());
+
+                    if (!tsm.isPresent() || !identityMapped) {
+                        return evicted;
                     }
+
+                    return IdentityMap.of(tsm.get())
+                            .flatMap(identityMap -> evicted.doFinally(signal -> identityMap.remove(tableInfo.clazz, keys)));
+                });
+    }
+
+    /**
+     * Since 1.2: INSERT statement of given columns.
+     *
+     * @param generatedKey the AUTO_INCREMENT column to be returned, or {@literal null}. Ignored unless
+     *                     {@link #generatedKeyInSql()}.
+     */
+    String insertSql(TableInfo<?> tableInfo, List<String> columns, String generatedKey) {
+        return "INSERT INTO " + quote(tableInfo.tableName)
+                + " (" + columns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    /**
+     * Since 1.2: if {@link #insertSql(TableInfo, List, String)} returns the generated key by itself. Otherwise it is
+     * requested by {@link Statement#returnGeneratedValues(String...)}.
+     */
+    boolean generatedKeyInSql() {
+        return false;
+    }
+
+    /**
+     * Since 1.2: executes UPDATE/DELETE bound from entity.
+     *
+     * @return {@link Mono} emitting the number of rows updated.
+     */
+    <T> Mono<Integer> executeUpdate(Operation operation, Binder<T> binder, T entity) {
+        Mono<Integer> updated = inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(binder.sql);
+            binder.bind(statement, 0, entity);
+            return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+        }).reduce(0, Integer::sum);
+
+        return measure(entity.getClass(), operation, binder.size(), updated, count -> 0, count -> count);
+    }
+
+    /**
+     * Since 1.2: records the operation to {@link Metrics} when completed, failed or cancelled.
+     *
+     * @param rowsMapped   rows read, by the result.
+     * @param rowsAffected rows written, by the result.
+     */
+    <R> Mono<R> measure(Class<?> clazz, Operation operation, int bindParameters, Mono<R> mono, ToLongFunction<? super R> rowsMapped, ToLongFunction<? super R> rowsAffected) {
+        if (metrics == Metrics.NONE) {
+            return mono;
+        }
+
+        return Measured.mono(metrics, clazz, operation, bindParameters, mono, rowsMapped, rowsAffected);
+    }
+
+    /**
+     * Since 1.2: records the query to {@link Metrics} when completed, failed or cancelled. Each entity emitted is a row mapped.
+     */
+    <T> Flux<T> measureMany(Class<?> clazz, Operation operation, int bindParameters, Flux<T> flux) {
+        if (metrics == Metrics.NONE) {
+            return flux;
+        }
+
+        return Measured.flux(metrics, clazz, operation, bindParameters, flux);
+    }
+
+    /**
+     * Since 1.2: runs action on the connection of {@link DatabaseClient}, which joins the current transaction if any.
+     */
+    <R> Flux<R> inConnectionMany(Function<Connection, Flux<R>> action) {
+        if (!(databaseClient instanceof ConnectionAccessor)) {
+            throw new R2dbcException("DatabaseClient " + databaseClient.getClass().getCanonicalName() + " does not provide access to connection.");
+        }
+
+        return ((ConnectionAccessor) databaseClient).inConnectionMany(action);
+    }
+
+    /**
+     * Since 1.2: maximum number of rows matched by one statement, to keep IN lists reasonable for the optimizer.
+     */
+    static final int MAX_CHUNK_ROWS = 1000;
+
+    /**
+     * Since 1.2: number of rows matched per statement, given the number of parameters per row.
+     */
+    int chunkSize(int paramsPerRow) {
+        return Math.max(1, Math.min(MAX_CHUNK_ROWS, maxBindParameters() / paramsPerRow));
+    }
+
+    /**
+     * Since 1.2: predicate matching {@code count} rows on given columns, with parameters bound row by row.
+     */
+    String inClause(List<String> keys, int count) {
+        if (keys.size() == 1) {
+            // x IN (?, ?, ...)
+            return quote(keys.get(0)) + " IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+        } else if (supportsRowValueIn()) {
+            // (x, y) IN ((?, ?), (?, ?), ...)
+            String valueStr = keys.stream().map(key -> "?").collect(Collectors.joining(", ", "(", ")"));
+            return keys.stream().map(this::quote).collect(Collectors.joining(", ", "(", ")"))
+                    + " IN (" + String.join(", ", Collections.nCopies(count, valueStr)) + ")";
+        } else {
+            // (x = ? AND y = ?) OR (x = ? AND y = ?) OR ...
+            String valueStr = keys.stream().map(key -> quote(key) + " = ?").collect(Collectors.joining(" AND ", "(", ")"));
+            return String.join(" OR ", Collections.nCopies(count, valueStr));
+        }
+    }
+
+    /**
+     * Since 1.2: predicate of rows after the given key, in the order of key columns.
+     * Parameters are bound by {@link #afterParams(List)}.
+     */
+    String afterClause(List<String> keys) {
+        if (keys.size() == 1) {
+            // x > ?
+            return quote(keys.get(0)) + " > ?";
+        } else if (supportsRowValueIn()) {
+            // (x, y) > (?, ?)
+            return keys.stream().map(this::quote).collect(Collectors.joining(", ", "(", ")"))
+                    + " > " + keys.stream().map(key -> "?").collect(Collectors.joining(", ", "(", ")"));
+        } else {
+            // (x > ?) OR (x = ? AND y > ?) OR ...
+            List<String> terms = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                StringBuilder term = new StringBuilder("(");
+                for (int j = 0; j < i; j++) {
+                    term.append(quote(keys.get(j))).append(" = ? AND ");
                 }
-            } else {
-                insertSpec = insertSpec.value(key, value);
+                terms.add(term.append(quote(keys.get(i))).append(" > ?)").toString());
             }
+            return String.join(" OR ", terms);
         }
+    }
+
+    /**
+     * Since 1.2: parameters of {@link #afterClause(List)}, given the key values.
+     */
+    List<Param> afterParams(List<Param> keyParams) {
+        if (keyParams.size() == 1 || supportsRowValueIn()) {
+            return keyParams;
+        }
+
+        List<Param> params = new ArrayList<>();
+        for (int i = 0; i < keyParams.size(); i++) {
+            params.addAll(keyParams.subList(0, i + 1));
+        }
+        return params;
+    }
+
+    /**
+     * Since 1.2: query of estimated row count of table from statistics, with table name as the only parameter.
+     * {@literal null} if not supported.
+     */
+    String approximateCountSql() {
+        return null;
+    }
 
-        return insertSpec;
+    /**
+     * Since 1.2: clause limiting the number of rows, following ORDER BY.
+     */
+    String limitClause(int count) {
+        return "LIMIT " + count;
     }
 
     /**
-     * 1.1: Supports NULL in criteria.
+     * Since 1.2: maximum number of bind parameters per statement.
+     */
+    abstract int maxBindParameters();
+
+    /**
+     * Since 1.2: if row value constructor is supported in IN predicate. i.e. (x, y) IN ((?, ?), ...)
+     * Also in comparison. i.e. (x, y) > (?, ?)
      */
-    <T> DatabaseClient.UpdateSpec updateSpec(TableInfo<T> tableInfo, T entity) {
-        Update update = null;
+    abstract boolean supportsRowValueIn();
 
-        List<String> nonKeys = tableInfo.allFields.keySet().stream().filter(s -> !tableInfo.allKeys.contains(s)).collect(Collectors.toList());
+    /**
+     * Since 1.2: bind marker of the parameter at index (from 0).
+     */
+    String bindMarker(int index) {
+        return "?";
+    }
 
-        for (String key : nonKeys) {
-            Object value = Utils.getFieldValue(entity, tableInfo.allFields.get(key));
-            update = (update == null) ? Update.update(key, value) : update.set(key, value);
+    /**
+     * Since 1.2: replaces ? of generated SQL with bind markers of the dialect, in order.
+     * (Generated SQL has no ? other than parameters. SQL of users is never converted.)
+     */
+    final String markers(String sql) {
+        if ("?".equals(bindMarker(0))) {
+            return sql;
         }
 
-        Criteria criteria = null;
+        StringBuilder builder = new StringBuilder(sql.length() + 16);
+        int index = 0;
 
-        for (String key : tableInfo.allKeys) {
-            Object value = Utils.getFieldValue(entity, tableInfo.allFields.get(key));
-            if (value == null) {
-                criteria = criteria == null ? Criteria.where(key).isNull() : criteria.and(key).isNull();
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                builder.append(bindMarker(index++));
             } else {
-                criteria = criteria == null ? Criteria.where(key).is(value) : criteria.and(key).is(value);
+                builder.append(c);
             }
         }
 
-        assert update != null;
-        assert criteria != null;
+        return builder.toString();
+    }
 
-        return databaseClient
-                .update()
-                .table(tableInfo.tableName)
-                .using(update)
-                .matching(criteria);
+    /**
+     * Since 1.2: query of a row existing or not, given " FROM ... WHERE ...".
+     */
+    String existsSql(String fromWhere) {
+        return "SELECT 1" + fromWhere + " LIMIT 1";
+    }
+
+    /**
+     * Since 1.2: quotes an identifier.
+     */
+    String quote(String identifier) {
+        return "`" + identifier + "`";
     }
 
+    /**
+     * Since 1.2: the INSERT-or-UPDATE statement of table.
+     *
+     * @param columns columns to be inserted or updated, including all primary key columns.
+     *                Parameters are bound in the same order.
+     */
+    abstract String upsertSql(TableInfo<?> tableInfo, List<String> columns);
+
+    DatabaseClient.GenericExecuteSpec execute0(String sql) {
+        return prepare(sql);
+    }
+
+    /**
+     * @param params each parameter MUST NOT be null
+     */
+    DatabaseClient.GenericExecuteSpec execute0(String sql, Object... params) {
+        DatabaseClient.GenericExecuteSpec executeSpec = prepare(sql);
+
+        for (int i = 0; i < params.length; i++) {
+            executeSpec = executeSpec.bind(i, params[i]);
+        }
+
+        return executeSpec;
+    }
+
+    /**
+     * Since 1.1.
+     */
+    private DatabaseClient.GenericExecuteSpec execute0(String sql, List<Param> params) {
+        DatabaseClient.GenericExecuteSpec execute = prepare(sql);
+
+        for (int i = 0; i < params.size(); i++) {
+            Param param = params.get(i);
+            execute = (param.value == null) ? execute.bindNull(i, param.type) : execute.bind(i, param.value);
+        }
+
+        return execute;
+    }
+
+    /**
+     * Since 1.2: statement to be bound & executed, recorded to {@link SlowQueryLog} if enabled.
+     */
+    private DatabaseClient.GenericExecuteSpec prepare(String sql) {
+        DatabaseClient.GenericExecuteSpec executeSpec = databaseClient.execute(sql);
+        return slowQueryLog == null ? executeSpec : new TimedExecuteSpec(this, slowQueryLog, sql, executeSpec);
+    }
+
+    /**
+     * Since 1.2: statement showing the plan of SELECT, or {@literal null} if not supported. (See {@link SlowQueryLog})
+     */
+    String explainSql(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    /**
+     * Since 1.2: a bind parameter, typed for binding NULL.
+     */
+    static final class Param {
+        final Class<?> type;
+        final Object value;
+
+        Param(Class<?> type, Object value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
 }
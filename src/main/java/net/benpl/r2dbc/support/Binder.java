@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import io.r2dbc.spi.Statement;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Since 1.2: SQL text with typed bind slots, compiled once per entity class & statement shape. (See {@link EntitySql})
+ * <p>
+ * Binds field values of an entity straight into a {@link Statement} by position, without intermediate collections.
+ */
+class Binder<T> {
+
+    final String sql;
+
+    private final FieldAccessor[] accessors;
+
+    /**
+     * Types for binding NULL.
+     */
+    private final Class<?>[] types;
+
+    /**
+     * @param fields field of each bind marker, in order.
+     */
+    Binder(String sql, Class<T> clazz, List<Field> fields) {
+        this.sql = sql;
+        this.accessors = new FieldAccessor[fields.size()];
+        this.types = new Class<?>[fields.size()];
+
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            accessors[i] = FieldAccessor.of(clazz, field);
+            types[i] = field.getType();
+        }
+    }
+
+    /**
+     * The number of bind markers.
+     */
+    int size() {
+        return accessors.length;
+    }
+
+    /**
+     * Binds values of entity from index {@code offset}.
+     *
+     * @return index of the next bind marker.
+     */
+    int bind(Statement statement, int offset, T entity) {
+        for (int i = 0; i < accessors.length; i++) {
+            Object value = accessors[i].get(entity);
+
+            if (value == null) {
+                statement.bindNull(offset + i, types[i]);
+            } else {
+                statement.bind(offset + i, value);
+            }
+        }
+
+        return offset + accessors.length;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.R2dbc;
+import net.benpl.r2dbc.exception.R2dbcException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Since 1.2: {@link R2dbc} coalescing concurrent {@link #findById(Class, Object)} of the same entity type into one
+ * {@link #findAllById(Class, Collection)}.
+ * <p>
+ * Requests are collected per entity type for a short window, or until the maximum batch size is reached, then
+ * queried at once. Each request gets back its own entity (or empty).
+ * <p>
+ * Batched queries are executed outside of the callers' subscription, thus outside of their transactions. Use it for
+ * non-transactional reads only, e.g. GraphQL-style resolvers.
+ * <pre>
+ * R2dbc r2dbc = new Coalescing(R2dbc.of(databaseClient, Type.MYSQL), Duration.ofMillis(2), 100);
+ * </pre>
+ */
+public class Coalescing extends Delegating {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+
+    /**
+     * Open batch of each entity type.
+     */
+    private final Map<Class<?>, Batch<?>> batches = new HashMap<>();
+
+    /**
+     * @param delegate     the {@link R2dbc} to query.
+     * @param window       how long a batch waits for more requests after the first one.
+     * @param maxBatchSize batch is queried immediately if this number of requests reached.
+     */
+    public Coalescing(R2dbc delegate, @NonNull Duration window, int maxBatchSize) {
+        this(delegate, window, maxBatchSize, Schedulers.parallel());
+    }
+
+    /**
+     * @param scheduler where the windows are timed.
+     */
+    public Coalescing(R2dbc delegate, @NonNull Duration window, int maxBatchSize, @NonNull Scheduler scheduler) {
+        super(delegate);
+
+        if (maxBatchSize <= 0) {
+            throw new R2dbcException("Coalescing: invalid batch size " + maxBatchSize + ".");
+        }
+
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+        List<Object> key = tableInfo.idKey(id);
+
+        return Mono.create(sink -> {
+            Request<T> request = new Request<>(key, id, sink);
+            enqueue(tableInfo, clazz, request);
+            sink.onCancel(() -> dequeue(clazz, request));
+        });
+    }
+
+    private <T> void enqueue(TableInfo<T> tableInfo, Class<T> clazz, Request<T> request) {
+        Batch<T> full = null;
+
+        synchronized (batches) {
+            @SuppressWarnings("unchecked")
+            Batch<T> batch = (Batch<T>) batches.get(clazz);
+
+            if (batch == null) {
+                Batch<T> created = batch = new Batch<>(tableInfo, clazz);
+                batches.put(clazz, created);
+                scheduler.schedule(() -> flush(created), windowNanos, TimeUnit.NANOSECONDS);
+            }
+
+            batch.requests.add(request);
+
+            if (batch.requests.size() >= maxBatchSize) {
+                batches.remove(clazz);
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            query(full);
+        }
+    }
+
+    /**
+     * Request cancelled. Removed from the open batch, which is dropped if no request left. (Requests of a batch already
+     * queried just get no result.)
+     */
+    private void dequeue(Class<?> clazz, Request<?> request) {
+        synchronized (batches) {
+            Batch<?> batch = batches.get(clazz);
+
+            if (batch != null && batch.requests.remove(request) && batch.requests.isEmpty()) {
+                batches.remove(clazz);
+            }
+        }
+    }
+
+    /**
+     * Window of batch elapsed.
+     */
+    private void flush(Batch<?> batch) {
+        synchronized (batches) {
+            if (batches.get(batch.clazz) != batch) {
+                // Already queried when full, or dropped as all requests cancelled.
+                return;
+            }
+            batches.remove(batch.clazz);
+        }
+
+        query(batch);
+    }
+
+    private <T> void query(Batch<T> batch) {
+        Map<List<Object>, Object> ids = new LinkedHashMap<>();
+        for (Request<T> request : batch.requests) {
+            ids.putIfAbsent(request.key, request.id);
+        }
+
+        delegate.findAllById(batch.clazz, ids.values())
+                .collectMap(batch.tableInfo::entityKey)
+                .subscribe(
+                        found -> batch.requests.forEach(request -> {
+                            T entity = found.get(request.key);
+                            if (entity == null) {
+                                request.sink.success();
+                            } else {
+                                request.sink.success(entity);
+                            }
+                        }),
+                        error -> batch.requests.forEach(request -> request.sink.error(error)));
+    }
+
+    private static class Batch<T> {
+        private final TableInfo<T> tableInfo;
+        private final Class<T> clazz;
+        private final List<Request<T>> requests = new ArrayList<>();
+
+        private Batch(TableInfo<T> tableInfo, Class<T> clazz) {
+            this.tableInfo = tableInfo;
+            this.clazz = clazz;
+        }
+    }
+
+    private static class Request<T> {
+        private final List<Object> key;
+        private final Object id;
+        private final MonoSink<T> sink;
+
+        private Request(List<Object> key, Object id, MonoSink<T> sink) {
+            this.key = key;
+            this.id = id;
+            this.sink = sink;
+        }
+    }
+}
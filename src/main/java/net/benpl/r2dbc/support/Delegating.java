@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.CountMode;
+import net.benpl.r2dbc.R2dbc;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Since 1.2: {@link R2dbc} forwarding all operations to another one. Base of decorators.
+ */
+abstract class Delegating implements R2dbc {
+
+    final R2dbc delegate;
+
+    Delegating(@NonNull R2dbc delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz) {
+        return delegate.count(clazz);
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, CountMode mode) {
+        return delegate.count(clazz, mode);
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, Duration maxAge) {
+        return delegate.count(clazz, maxAge);
+    }
+
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        return delegate.existsById(clazz, id);
+    }
+
+    @Override
+    public <T> Mono<T> save(T entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <T> Mono<T> upsert(T entity) {
+        return delegate.upsert(entity);
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Iterable<T> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities, int batchSize) {
+        return delegate.saveAll(entities, batchSize);
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        return delegate.findById(clazz, id);
+    }
+
+    @Override
+    public <T> Flux<T> findAllById(Class<T> clazz, Collection<?> ids) {
+        return delegate.findAllById(clazz, ids);
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz) {
+        return delegate.findAll(clazz);
+    }
+
+    @Override
+    public <T> Flux<T> findAllParallel(Class<T> clazz, int parallelism, boolean ordered) {
+        return delegate.findAllParallel(clazz, parallelism, ordered);
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz, int pageSize) {
+        return delegate.findAll(clazz, pageSize);
+    }
+
+    @Override
+    public <T> Flux<T> streamAll(Class<T> clazz, Object afterId, int pageSize) {
+        return delegate.streamAll(clazz, afterId, pageSize);
+    }
+
+    @Override
+    public <T> Mono<Boolean> delete(@NonNull T entity) {
+        return delegate.delete(entity);
+    }
+
+    @Override
+    public <T> Mono<Integer> deleteAll(List<T> entities) {
+        return delegate.deleteAll(entities);
+    }
+
+    @Override
+    public <T> Mono<Integer> deleteAll(List<T> entities, int concurrency) {
+        return delegate.deleteAll(entities, concurrency);
+    }
+
+    @Override
+    public <T> Mono<Boolean> deleteById(Class<T> clazz, @NonNull Object id) {
+        return delegate.deleteById(clazz, id);
+    }
+
+    @Override
+    public <T> Mono<Integer> deleteAll(Class<T> clazz) {
+        return delegate.deleteAll(clazz);
+    }
+
+    @Override
+    public <T> Flux<T> select(Class<T> clazz, String sql, Object... params) {
+        return delegate.select(clazz, sql, params);
+    }
+
+    @Override
+    public Mono<Integer> update(String sql, Object... params) {
+        return delegate.update(sql, params);
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec execute(String sql, Object... params) {
+        return delegate.execute(sql, params);
+    }
+}
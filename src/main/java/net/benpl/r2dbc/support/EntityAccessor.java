@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+/**
+ * Since 1.2: reflection-free accessor of an entity, usually generated at build time by spring-r2dbc-processor.
+ * <p>
+ * Implementations are discovered via {@link java.util.ServiceLoader}, and take priority over the reflective access
+ * of {@link RowMapper}, {@link TableInfo} & {@link Utils}. Fields not covered by {@link #fieldNames()} are still
+ * accessed reflectively.
+ */
+public interface EntityAccessor<T> {
+
+    /**
+     * The entity type.
+     */
+    Class<T> entityClass();
+
+    /**
+     * Names of covered fields. Index of each name is the index used by {@link #get(Object, int)} & {@link #set(Object, int, Object)}.
+     */
+    String[] fieldNames();
+
+    /**
+     * @return a new instance, or {@literal null} if the entity cannot be instantiated directly.
+     */
+    T newInstance();
+
+    /**
+     * Get value of field at index from entity.
+     */
+    Object get(T entity, int index);
+
+    /**
+     * Set value of field at index into entity.
+     */
+    void set(T entity, int index, Object value);
+}
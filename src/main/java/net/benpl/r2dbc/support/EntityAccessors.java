@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Since 1.2: registry of {@link EntityAccessor} discovered via {@link ServiceLoader}.
+ * <p>
+ * Accessors failing to load (e.g. generated for a stale version of entity) are skipped, so their entities are accessed
+ * reflectively.
+ */
+class EntityAccessors {
+
+    private static final Log logger = LogFactory.getLog(EntityAccessors.class);
+
+    private static final Map<Class<?>, EntityAccessor<?>> ALL = new HashMap<>();
+
+    static {
+        Iterator<EntityAccessor> iterator = ServiceLoader.load(EntityAccessor.class).iterator();
+
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+
+                EntityAccessor<?> accessor = iterator.next();
+                ALL.put(accessor.entityClass(), accessor);
+            } catch (ServiceConfigurationError | LinkageError e) {
+                logger.warn("Failed to load generated EntityAccessor, falling back to reflection.", e);
+            }
+        }
+    }
+
+    /**
+     * Field index of each generated accessor.
+     */
+    private static final ClassValue<Map<String, Integer>> INDEXES = new ClassValue<Map<String, Integer>>() {
+        @Override
+        protected Map<String, Integer> computeValue(Class<?> clazz) {
+            Map<String, Integer> indexes = new HashMap<>();
+            EntityAccessor<?> accessor = ALL.get(clazz);
+
+            if (accessor != null) {
+                String[] fieldNames = accessor.fieldNames();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    indexes.put(fieldNames[i], i);
+                }
+            }
+
+            return indexes;
+        }
+    };
+
+    /**
+     * @return the generated accessor of class, or {@literal null} if none.
+     */
+    static <T> EntityAccessor<T> of(Class<T> clazz) {
+        @SuppressWarnings("unchecked")
+        EntityAccessor<T> accessor = (EntityAccessor<T>) ALL.get(clazz);
+        return accessor;
+    }
+
+    /**
+     * @return index of field in the generated accessor of class, or -1 if not covered.
+     */
+    static int indexOf(Class<?> clazz, String fieldName) {
+        Integer index = INDEXES.get(clazz).get(fieldName);
+        return index == null ? -1 : index;
+    }
+}
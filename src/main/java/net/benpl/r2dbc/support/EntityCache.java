@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.annotation.Table;
+import net.benpl.r2dbc.exception.R2dbcException;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Since 1.2: LRU cache of entities by primary key, with time to live. (See {@link Table#cacheSize()})
+ * <p>
+ * Column values are kept instead of entities, and each hit creates a new instance, so callers cannot modify the
+ * cached ones. (Values themselves are not copied.)
+ */
+class EntityCache<T> {
+
+    private final Class<T> clazz;
+    private final TableInfo<T> tableInfo;
+    private final long ttlNanos;
+
+    private final Map<List<Object>, Cached> entries;
+
+    /**
+     * Increased by every eviction, so that a query started before is not put into cache afterwards.
+     */
+    private long generation = 0;
+
+    EntityCache(TableInfo<T> tableInfo) {
+        int maxSize = tableInfo.cacheSize;
+
+        this.clazz = tableInfo.clazz;
+        this.tableInfo = tableInfo;
+        this.ttlNanos = tableInfo.cacheTtl * 1_000_000_000L;
+        this.entries = new LinkedHashMap<List<Object>, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Cached> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return a copy of cached entity, or {@literal null} if none.
+     */
+    T get(List<Object> key) {
+        Object[] values = valuesOf(key);
+        return values == null ? null : copyOf(values);
+    }
+
+    /**
+     * @return if entity is cached, without copying it.
+     */
+    boolean contains(List<Object> key) {
+        return valuesOf(key) != null;
+    }
+
+    private synchronized Object[] valuesOf(List<Object> key) {
+        Cached entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (ttlNanos > 0 && System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.values;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches entity, unless evicted since generation.
+     */
+    void put(List<Object> key, T entity, long generation) {
+        Object[] values = tableInfo.valuesOf(entity);
+
+        synchronized (this) {
+            if (this.generation == generation) {
+                entries.put(key, new Cached(values));
+            }
+        }
+    }
+
+    synchronized void evict(List<Object> key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private T copyOf(Object[] values) {
+        T instance;
+
+        try {
+            instance = Utils.newInstance(clazz);
+        } catch (ReflectiveOperationException e) {
+            throw new R2dbcException(String.format("%s: field to create instance.", clazz.getCanonicalName()), e);
+        }
+
+        int i = 0;
+        for (Field field : tableInfo.allFields.values()) {
+            Utils.setFieldValue(instance, field, values[i++]);
+        }
+
+        return instance;
+    }
+
+    private static class Cached {
+        private final Object[] values;
+        private final long createdAt = System.nanoTime();
+
+        private Cached(Object[] values) {
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Since 1.2: SQL texts of an entity class in the dialect of an {@link Abstract}, compiled once and shared by all
+ * operations of the instance. (See {@link Abstract#sqlOf(TableInfo)})
+ * <p>
+ * Fixed statements are built at construction. INSERT, upsert & UPDATE statements are built per set of written
+ * columns, each with a {@link Binder} binding the entity.
+ */
+class EntitySql<T> {
+
+    private final Abstract dialect;
+    private final TableInfo<T> tableInfo;
+
+    /**
+     * Statements with bind markers of the dialect.
+     */
+    final String countSql;
+    final String existsByIdSql;
+    final String findByIdSql;
+    final String deleteByIdSql;
+
+    /**
+     * SELECT without WHERE, to be followed by other clauses. (Bind markers not converted)
+     */
+    final String findAllSql;
+
+    /**
+     * DELETE without WHERE, may be followed by WHERE clause. (Bind markers not converted)
+     */
+    final String deleteAllSql;
+
+    /**
+     * DELETE by entity, bound from {@link TableInfo#deleteKeys}.
+     */
+    final Binder<T> deleteBinder;
+
+    /**
+     * Statements by written columns.
+     */
+    private final Map<List<String>, Binder<T>> insertBinders = new ConcurrentHashMap<>();
+    private final Map<List<String>, Binder<T>> upsertBinders = new ConcurrentHashMap<>();
+    private final Map<List<String>, Binder<T>> updateBinders = new ConcurrentHashMap<>();
+    private final Map<List<String>, Binder<T>> versionedUpdateBinders = new ConcurrentHashMap<>();
+
+    EntitySql(Abstract dialect, TableInfo<T> tableInfo) {
+        this.dialect = dialect;
+        this.tableInfo = tableInfo;
+
+        String from = " FROM " + dialect.quote(tableInfo.tableName);
+        String byIdClause = " WHERE " + whereClause(tableInfo.allKeys);
+
+        this.countSql = "SELECT COUNT(*)" + from;
+        this.existsByIdSql = dialect.markers(dialect.existsSql(from + byIdClause));
+        this.findByIdSql = dialect.markers("SELECT *" + from + byIdClause);
+        this.deleteByIdSql = dialect.markers("DELETE" + from + byIdClause);
+        this.deleteBinder = binder("DELETE" + from + " WHERE " + whereClause(tableInfo.deleteKeys), tableInfo.deleteKeys);
+        this.findAllSql = "SELECT *" + from;
+        this.deleteAllSql = "DELETE" + from;
+    }
+
+    /**
+     * @return x = ? AND y = ? AND ...
+     */
+    private String whereClause(List<String> keys) {
+        return keys.stream()
+                .map(key -> dialect.quote(key) + " = ?")
+                .collect(Collectors.joining(" AND "));
+    }
+
+    /**
+     * @return if INSERT of the columns returns the generated AUTO_INCREMENT key.
+     */
+    boolean generatesKey(List<String> columns) {
+        return tableInfo.aiField != null && !columns.contains(tableInfo.aiKey);
+    }
+
+    /**
+     * @return INSERT of the columns, returning the generated key by SQL if supported by the dialect.
+     */
+    Binder<T> insertBinder(List<String> columns) {
+        Binder<T> binder = insertBinders.get(columns);
+
+        if (binder == null) {
+            String generatedKey = generatesKey(columns) ? tableInfo.aiKey : null;
+            binder = insertBinders.computeIfAbsent(columns, c -> binder(dialect.insertSql(tableInfo, c, generatedKey), c));
+        }
+
+        return binder;
+    }
+
+    /**
+     * @return INSERT-or-UPDATE of the columns.
+     */
+    Binder<T> upsertBinder(List<String> columns) {
+        Binder<T> binder = upsertBinders.get(columns);
+
+        if (binder == null) {
+            binder = upsertBinders.computeIfAbsent(columns, c -> binder(dialect.upsertSql(tableInfo, c), c));
+        }
+
+        return binder;
+    }
+
+    /**
+     * @param columns non primary key columns, must not be empty.
+     * @return UPDATE ... SET x = ?, ... WHERE key = ? AND ...
+     */
+    Binder<T> updateBinder(List<String> columns) {
+        Binder<T> binder = updateBinders.get(columns);
+
+        if (binder == null) {
+            binder = updateBinders.computeIfAbsent(columns, c -> {
+                String sql = "UPDATE " + dialect.quote(tableInfo.tableName)
+                        + " SET " + c.stream().map(key -> dialect.quote(key) + " = ?").collect(Collectors.joining(", "))
+                        + " WHERE " + whereClause(tableInfo.allKeys);
+
+                List<String> slots = new ArrayList<>(c);
+                slots.addAll(tableInfo.allKeys);
+
+                return binder(sql, slots);
+            });
+        }
+
+        return binder;
+    }
+
+    /**
+     * @param columns non primary key columns other than version, may be empty.
+     * @return UPDATE ... SET x = ?, ..., version = version + 1 WHERE key = ? AND ... AND version = ?
+     */
+    Binder<T> versionedUpdateBinder(List<String> columns) {
+        Binder<T> binder = versionedUpdateBinders.get(columns);
+
+        if (binder == null) {
+            binder = versionedUpdateBinders.computeIfAbsent(columns, c -> {
+                String versionStr = dialect.quote(tableInfo.versionKey);
+
+                String sql = "UPDATE " + dialect.quote(tableInfo.tableName) + " SET "
+                        + c.stream().map(key -> dialect.quote(key) + " = ?, ").collect(Collectors.joining())
+                        + versionStr + " = " + versionStr + " + 1"
+                        + " WHERE " + whereClause(tableInfo.allKeys)
+                        + " AND " + versionStr + " = ?";
+
+                List<String> slots = new ArrayList<>(c);
+                slots.addAll(tableInfo.allKeys);
+                slots.add(tableInfo.versionKey);
+
+                return binder(sql, slots);
+            });
+        }
+
+        return binder;
+    }
+
+    /**
+     * @param slots column of each ? in sql, in order.
+     */
+    private Binder<T> binder(String sql, List<String> slots) {
+        List<Field> fields = slots.stream().map(tableInfo.allFields::get).collect(Collectors.toList());
+        return new Binder<>(dialect.markers(sql), tableInfo.clazz, fields);
+    }
+}
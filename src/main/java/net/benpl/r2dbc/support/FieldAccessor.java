@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.exception.R2dbcException;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Since 1.2: accessor of a field, resolved once per entity class.
+ * <p>
+ * Same lookup order as before: direct field access if the field is accessible, otherwise getter/setter. The getter of
+ * a primitive boolean field may also be named {@code isX()}.
+ * Getter and setter are resolved separately on first use, so a missing one only fails when it is needed.
+ * Fields covered by a generated {@link EntityAccessor} are accessed through it instead.
+ */
+class FieldAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Accessors of each entity class.
+     */
+    private static final ClassValue<Map<Field, FieldAccessor>> REGISTRY = new ClassValue<Map<Field, FieldAccessor>>() {
+        @Override
+        protected Map<Field, FieldAccessor> computeValue(Class<?> clazz) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> clazz;
+    private final String className;
+    private final Field field;
+
+    private volatile MethodHandle getter;
+    private volatile MethodHandle setter;
+
+    private FieldAccessor(Class<?> clazz, Field field) {
+        this.clazz = clazz;
+        this.className = clazz.getCanonicalName();
+        this.field = field;
+    }
+
+    /**
+     * @param clazz the runtime class of entities to be accessed.
+     */
+    static FieldAccessor of(Class<?> clazz, Field field) {
+        Map<Field, FieldAccessor> accessors = REGISTRY.get(clazz);
+        FieldAccessor accessor = accessors.get(field);
+        return accessor != null ? accessor : accessors.computeIfAbsent(field, f -> create(clazz, f));
+    }
+
+    private static FieldAccessor create(Class<?> clazz, Field field) {
+        EntityAccessor<?> generated = EntityAccessors.of(clazz);
+
+        if (generated != null && field.getDeclaringClass() == clazz) {
+            int index = EntityAccessors.indexOf(clazz, field.getName());
+            if (index >= 0) {
+                @SuppressWarnings("unchecked")
+                EntityAccessor<Object> entityAccessor = (EntityAccessor<Object>) generated;
+                return new Generated(clazz, field, entityAccessor, index);
+            }
+        }
+
+        return new FieldAccessor(clazz, field);
+    }
+
+    Field field() {
+        return field;
+    }
+
+    /**
+     * Get field value from object.
+     */
+    Object get(Object entity) {
+        MethodHandle handle = getter;
+
+        if (handle == null) {
+            getter = handle = resolveGetter();
+        }
+
+        try {
+            return (Object) handle.invokeExact(entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new R2dbcException(String.format("%s: failed to get field [%s] value.", className, field.getName()), e);
+        }
+    }
+
+    /**
+     * Set field value into object.
+     */
+    void set(Object entity, Object value) {
+        MethodHandle handle = setter;
+
+        if (handle == null) {
+            setter = handle = resolveSetter();
+        }
+
+        try {
+            handle.invokeExact(entity, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new R2dbcException(String.format("%s: failed to set field [%s] value.", className, field.getName()), e);
+        }
+    }
+
+    private MethodHandle resolveGetter() {
+        if (field.isAccessible()) {
+            try {
+                return LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new R2dbcException(String.format("%s: failed to get field [%s] value.", className, field.getName()), e);
+            }
+        }
+
+        Method method;
+        String methodName = "get" + StringUtils.capitalize(field.getName());
+
+        try {
+            method = clazz.getMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            if (field.getType() != boolean.class) {
+                throw new R2dbcException(String.format("%s: getter %s() not found.", className, methodName), e);
+            }
+
+            // Lombok-style getter of primitive boolean.
+            methodName = "is" + StringUtils.capitalize(field.getName());
+
+            try {
+                method = clazz.getMethod(methodName);
+            } catch (NoSuchMethodException e1) {
+                throw new R2dbcException(String.format("%s: getter %s() not found.", className, methodName), e1);
+            }
+        }
+
+        try {
+            return LOOKUP.unreflect(method).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new R2dbcException(String.format("%s: failed to invoke getter %s().", className, methodName), e);
+        }
+    }
+
+    private MethodHandle resolveSetter() {
+        if (field.isAccessible()) {
+            try {
+                return LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new R2dbcException(String.format("%s: failed to set field [%s] value.", className, field.getName()), e);
+            }
+        }
+
+        Method method;
+        String methodName = "set" + StringUtils.capitalize(field.getName());
+        Class<?> fieldType = field.getType();
+
+        try {
+            method = clazz.getDeclaredMethod(methodName, fieldType);
+        } catch (NoSuchMethodException e) {
+            throw new R2dbcException(String.format("%s: setter %s(%s) not found.", className, methodName, fieldType.getCanonicalName()), e);
+        }
+
+        try {
+            // Drops the return value of chained (fluent) setters.
+            return LOOKUP.unreflect(method).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new R2dbcException(String.format("%s: failed to invoke setter %s(%s).", className, methodName, fieldType.getCanonicalName()), e);
+        }
+    }
+
+    /**
+     * Accessor backed by a generated {@link EntityAccessor}.
+     */
+    private static class Generated extends FieldAccessor {
+
+        private final EntityAccessor<Object> accessor;
+        private final int index;
+
+        private Generated(Class<?> clazz, Field field, EntityAccessor<Object> accessor, int index) {
+            super(clazz, field);
+            this.accessor = accessor;
+            this.index = index;
+        }
+
+        @Override
+        Object get(Object entity) {
+            return accessor.get(entity, index);
+        }
+
+        @Override
+        void set(Object entity, Object value) {
+            accessor.set(entity, index, value);
+        }
+    }
+
+}
@@ -26,8 +26,15 @@ package net.benpl.r2dbc.support;
 
 import org.springframework.data.r2dbc.core.DatabaseClient;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * H2 Adaptation.
+ * <p>
+ * Identifiers are quoted with MySQL backticks, as in 1.1, which H2 accepts in MySQL compatibility mode only. So the
+ * database must be opened with MODE=MySQL, e.g. r2dbc:h2:mem:///test;MODE=MySQL.
  */
 public class H2 extends Abstract {
 
@@ -35,4 +42,42 @@ public class H2 extends Abstract {
         super(databaseClient);
     }
 
+    public H2(DatabaseClient databaseClient, Metrics metrics) {
+        super(databaseClient, metrics);
+    }
+
+    public H2(DatabaseClient databaseClient, Metrics metrics, SlowQueryLog slowQueryLog) {
+        super(databaseClient, metrics, slowQueryLog);
+    }
+
+    private H2(DatabaseClient replicaClient, H2 primary) {
+        super(replicaClient, primary);
+    }
+
+    @Override
+    Abstract replica(DatabaseClient replicaClient) {
+        return new H2(replicaClient, this);
+    }
+
+    @Override
+    int maxBindParameters() {
+        return 65535;
+    }
+
+    @Override
+    boolean supportsRowValueIn() {
+        return true;
+    }
+
+    /**
+     * MERGE INTO ... KEY (...) VALUES (...)
+     */
+    @Override
+    String upsertSql(TableInfo<?> tableInfo, List<String> columns) {
+        return "MERGE INTO " + quote(tableInfo.tableName)
+                + " (" + columns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + " KEY (" + tableInfo.allKeys.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.annotation.Table;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Since 1.2: entities loaded within one transaction by primary key, bound to the transaction carried in the Reactor
+ * Context. (See {@link Table#identityMap()})
+ * <p>
+ * Bound as a resource of the transaction, and unbound when it committed or rolled back.
+ */
+class IdentityMap {
+
+    /**
+     * Key of the transaction resource.
+     */
+    private static final Object RESOURCE = IdentityMap.class;
+
+    private final Map<Class<?>, Map<List<Object>, Object>> entities = new ConcurrentHashMap<>();
+
+    /**
+     * @return {@link Mono} emitting the identity map of current transaction, or empty Optional if not in a transaction.
+     */
+    static Mono<Optional<IdentityMap>> current() {
+        return Transactions.current()
+                .flatMap(IdentityMap::of)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * @param tsm synchronization of current transaction.
+     * @return {@link Mono} emitting the identity map of current transaction, created on first use.
+     */
+    static Mono<IdentityMap> of(TransactionSynchronizationManager tsm) {
+        // Locks the context of this transaction only, as resources of the context are not thread-safe.
+        return TransactionContextManager.currentContext()
+                .map(context -> {
+                    synchronized (context) {
+                        IdentityMap identityMap = (IdentityMap) tsm.getResource(RESOURCE);
+
+                        if (identityMap == null) {
+                            identityMap = new IdentityMap();
+                            tsm.bindResource(RESOURCE, identityMap);
+                            Transactions.afterCompletion(tsm, () -> tsm.unbindResourceIfPossible(RESOURCE));
+                        }
+
+                        return identityMap;
+                    }
+                });
+    }
+
+    <T> T get(Class<T> clazz, List<Object> key) {
+        Map<List<Object>, Object> map = entities.get(clazz);
+        return map == null ? null : clazz.cast(map.get(key));
+    }
+
+    /**
+     * @return the entity already mapped to key if any, otherwise the given one.
+     */
+    <T> T putIfAbsent(Class<T> clazz, List<Object> key, T entity) {
+        Object existing = entities.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>()).putIfAbsent(key, entity);
+        return existing == null ? entity : clazz.cast(existing);
+    }
+
+    /**
+     * @param keys keys to be removed, or {@literal null} for all of clazz.
+     */
+    void remove(Class<?> clazz, List<List<Object>> keys) {
+        if (keys == null) {
+            entities.remove(clazz);
+            return;
+        }
+
+        Map<List<Object>, Object> map = entities.get(clazz);
+
+        if (map != null) {
+            keys.forEach(map::remove);
+        }
+    }
+}
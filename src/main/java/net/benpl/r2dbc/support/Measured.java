@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.support.Metrics.Operation;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.ToLongFunction;
+
+/**
+ * Since 1.2: subscriber recording an operation to {@link Metrics} when completed, failed or cancelled.
+ * <p>
+ * Time & rows are counted in the subscriber itself, so measuring adds one operator per operation and one subscriber per
+ * subscription, and nothing per row.
+ */
+final class Measured<T> implements CoreSubscriber<T>, Subscription {
+
+    private static final AtomicIntegerFieldUpdater<Measured> RECORDED = AtomicIntegerFieldUpdater.newUpdater(Measured.class, "recorded");
+
+    private final CoreSubscriber<? super T> actual;
+    private final Metrics metrics;
+    private final Class<?> clazz;
+    private final Operation operation;
+    private final int bindParameters;
+
+    /**
+     * Rows read & written by the result, or {@literal null} to count each element as a row read.
+     */
+    private final ToLongFunction<? super T> rowsMapped;
+    private final ToLongFunction<? super T> rowsAffected;
+
+    private final long start = System.nanoTime();
+
+    private Subscription subscription;
+    private long mapped;
+    private long affected;
+    private volatile int recorded;
+
+    private Measured(CoreSubscriber<? super T> actual, Metrics metrics, Class<?> clazz, Operation operation, int bindParameters, ToLongFunction<? super T> rowsMapped, ToLongFunction<? super T> rowsAffected) {
+        this.actual = actual;
+        this.metrics = metrics;
+        this.clazz = clazz;
+        this.operation = operation;
+        this.bindParameters = bindParameters;
+        this.rowsMapped = rowsMapped;
+        this.rowsAffected = rowsAffected;
+    }
+
+    /**
+     * @param rowsMapped   rows read, by the result.
+     * @param rowsAffected rows written, by the result.
+     */
+    static <R> Mono<R> mono(Metrics metrics, Class<?> clazz, Operation operation, int bindParameters, Mono<R> mono, ToLongFunction<? super R> rowsMapped, ToLongFunction<? super R> rowsAffected) {
+        return new MonoOperator<R, R>(mono) {
+            @Override
+            public void subscribe(CoreSubscriber<? super R> actual) {
+                source.subscribe(new Measured<>(actual, metrics, clazz, operation, bindParameters, rowsMapped, rowsAffected));
+            }
+        };
+    }
+
+    /**
+     * Each element emitted is a row mapped.
+     */
+    static <T> Flux<T> flux(Metrics metrics, Class<?> clazz, Operation operation, int bindParameters, Flux<T> flux) {
+        return new FluxOperator<T, T>(flux) {
+            @Override
+            public void subscribe(CoreSubscriber<? super T> actual) {
+                source.subscribe(new Measured<T>(actual, metrics, clazz, operation, bindParameters, null, null));
+            }
+        };
+    }
+
+    @Override
+    public Context currentContext() {
+        return actual.currentContext();
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        actual.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (rowsMapped == null) {
+            mapped++;
+        } else {
+            mapped = rowsMapped.applyAsLong(t);
+            affected = rowsAffected.applyAsLong(t);
+        }
+
+        actual.onNext(t);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        actual.onError(throwable);
+        record(true);
+    }
+
+    @Override
+    public void onComplete() {
+        actual.onComplete();
+        record(false);
+    }
+
+    @Override
+    public void request(long n) {
+        subscription.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        subscription.cancel();
+        record(false);
+    }
+
+    /**
+     * Records once, whichever of complete, error & cancel comes first.
+     */
+    private void record(boolean failed) {
+        if (RECORDED.compareAndSet(this, 0, 1)) {
+            metrics.record(clazz, operation, System.nanoTime() - start, mapped, affected, bindParameters, failed);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+/**
+ * Since 1.2: receives measurements of operations, per entity class. (See {@link SimpleMetrics} &
+ * {@link MicrometerMetrics})
+ * <pre>
+ * SimpleMetrics metrics = new SimpleMetrics();
+ * R2dbc r2dbc = R2dbc.of(databaseClient, Type.MYSQL, metrics);
+ * </pre>
+ */
+public interface Metrics {
+
+    /**
+     * Measured operations. save() is measured as INSERT, UPDATE or UPSERT, whichever it executes.
+     */
+    enum Operation {
+        COUNT,
+        EXISTS_BY_ID,
+        INSERT,
+        UPDATE,
+        UPSERT,
+        FIND_BY_ID,
+        FIND_ALL_BY_ID,
+        FIND_ALL,
+        SELECT,
+        DELETE,
+        DELETE_ALL
+    }
+
+    /**
+     * Records one completed operation. Called on every operation, so implementations must not block, and should not
+     * allocate.
+     * <p>
+     * Measuring itself adds one operator per operation and one subscriber per subscription, which keeps the counters;
+     * nothing is allocated per row. With {@link #NONE} operations are not instrumented at all.
+     *
+     * @param entityClass    the entity type.
+     * @param operation      the operation.
+     * @param nanos          time from subscription to completion, error or cancellation.
+     * @param rowsMapped     the number of rows read.
+     * @param rowsAffected   the number of rows written.
+     * @param bindParameters the number of parameters bound.
+     * @param failed         if completed with error.
+     */
+    void record(Class<?> entityClass, Operation operation, long nanos, long rowsMapped, long rowsAffected, int bindParameters, boolean failed);
+
+    /**
+     * Records nothing.
+     */
+    Metrics NONE = (entityClass, operation, nanos, rowsMapped, rowsAffected, bindParameters, failed) -> {
+    };
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Since 1.2: {@link Metrics} publishing to a Micrometer {@link MeterRegistry}. (micrometer-core is an optional
+ * dependency, required only if this class is used)
+ * <p>
+ * Meters are tagged by "entity" (simple class name) & "operation":
+ * <ul>
+ * <li>r2dbc.operation: timer with percentile histogram.</li>
+ * <li>r2dbc.operation.errors: counter of failed operations.</li>
+ * <li>r2dbc.rows.mapped, r2dbc.rows.affected, r2dbc.bind.parameters: distribution summaries per operation.</li>
+ * </ul>
+ */
+public class MicrometerMetrics implements Metrics {
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final MeterRegistry registry;
+
+    /**
+     * Meters are registered once per entity class, so recording only looks them up.
+     */
+    private final ClassValue<Meters[]> meters = new ClassValue<Meters[]>() {
+        @Override
+        protected Meters[] computeValue(Class<?> clazz) {
+            Meters[] meters = new Meters[OPERATIONS.length];
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                meters[i] = new Meters(registry, clazz.getSimpleName(), OPERATIONS[i].name().toLowerCase());
+            }
+            return meters;
+        }
+    };
+
+    public MicrometerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void record(Class<?> entityClass, Operation operation, long nanos, long rowsMapped, long rowsAffected, int bindParameters, boolean failed) {
+        Meters m = meters.get(entityClass)[operation.ordinal()];
+
+        m.timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (failed) {
+            m.errors.increment();
+        }
+        m.rowsMapped.record(rowsMapped);
+        m.rowsAffected.record(rowsAffected);
+        m.bindParameters.record(bindParameters);
+    }
+
+    private static class Meters {
+        private final Timer timer;
+        private final Counter errors;
+        private final DistributionSummary rowsMapped;
+        private final DistributionSummary rowsAffected;
+        private final DistributionSummary bindParameters;
+
+        private Meters(MeterRegistry registry, String entity, String operation) {
+            this.timer = Timer.builder("r2dbc.operation")
+                    .tag("entity", entity)
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.errors = Counter.builder("r2dbc.operation.errors")
+                    .tag("entity", entity)
+                    .tag("operation", operation)
+                    .register(registry);
+            this.rowsMapped = DistributionSummary.builder("r2dbc.rows.mapped")
+                    .tag("entity", entity)
+                    .tag("operation", operation)
+                    .register(registry);
+            this.rowsAffected = DistributionSummary.builder("r2dbc.rows.affected")
+                    .tag("entity", entity)
+                    .tag("operation", operation)
+                    .register(registry);
+            this.bindParameters = DistributionSummary.builder("r2dbc.bind.parameters")
+                    .tag("entity", entity)
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+    }
+}
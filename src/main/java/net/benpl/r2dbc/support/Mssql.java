@@ -26,6 +26,10 @@ package net.benpl.r2dbc.support;
 
 import org.springframework.data.r2dbc.core.DatabaseClient;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * MS SQL-Server Adaptation.
  */
@@ -35,4 +39,115 @@ public class Mssql extends Abstract {
         super(databaseClient);
     }
 
+    public Mssql(DatabaseClient databaseClient, Metrics metrics) {
+        super(databaseClient, metrics);
+    }
+
+    public Mssql(DatabaseClient databaseClient, Metrics metrics, SlowQueryLog slowQueryLog) {
+        super(databaseClient, metrics, slowQueryLog);
+    }
+
+    private Mssql(DatabaseClient replicaClient, Mssql primary) {
+        super(replicaClient, primary);
+    }
+
+    @Override
+    Abstract replica(DatabaseClient replicaClient) {
+        return new Mssql(replicaClient, this);
+    }
+
+    /**
+     * The server supports 2100 parameters per request, some of which may be taken by the driver (e.g. sp_executesql).
+     */
+    @Override
+    int maxBindParameters() {
+        return 2000;
+    }
+
+    @Override
+    boolean supportsRowValueIn() {
+        return false;
+    }
+
+    @Override
+    String quote(String identifier) {
+        return "[" + identifier + "]";
+    }
+
+    /**
+     * @P1, @P2, ...
+     */
+    @Override
+    String bindMarker(int index) {
+        return "@P" + (index + 1);
+    }
+
+    /**
+     * SELECT TOP 1 1 FROM ...
+     */
+    @Override
+    String existsSql(String fromWhere) {
+        return "SELECT TOP 1 1" + fromWhere;
+    }
+
+    /**
+     * INSERT INTO ... (...) OUTPUT INSERTED.... VALUES (...)
+     */
+    @Override
+    String insertSql(TableInfo<?> tableInfo, List<String> columns, String generatedKey) {
+        String outputStr = generatedKey == null ? "" : " OUTPUT INSERTED." + quote(generatedKey);
+
+        return "INSERT INTO " + quote(tableInfo.tableName)
+                + " (" + columns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + outputStr
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    @Override
+    boolean generatedKeyInSql() {
+        return true;
+    }
+
+    /**
+     * Rows of heap or clustered index in sys.partitions.
+     */
+    @Override
+    String approximateCountSql() {
+        return "SELECT SUM(rows) FROM sys.partitions WHERE object_id = OBJECT_ID(?) AND index_id IN (0, 1)";
+    }
+
+    /**
+     * SET SHOWPLAN_TEXT ON must be the only statement of its batch, so not supported.
+     */
+    @Override
+    String explainSql(String sql) {
+        return null;
+    }
+
+    @Override
+    String limitClause(int count) {
+        return "OFFSET 0 ROWS FETCH NEXT " + count + " ROWS ONLY";
+    }
+
+    /**
+     * MERGE INTO ... USING (VALUES (...)) ... WHEN MATCHED THEN UPDATE ... WHEN NOT MATCHED THEN INSERT ...
+     */
+    @Override
+    String upsertSql(TableInfo<?> tableInfo, List<String> columns) {
+        List<String> nonKeys = columns.stream().filter(s -> !tableInfo.allKeys.contains(s)).collect(Collectors.toList());
+
+        String columnStr = columns.stream().map(this::quote).collect(Collectors.joining(", "));
+
+        String matchedStr = nonKeys.isEmpty()
+                ? ""
+                : " WHEN MATCHED THEN UPDATE SET " + nonKeys.stream().map(s -> "target." + quote(s) + " = source." + quote(s)).collect(Collectors.joining(", "));
+
+        return "MERGE INTO " + quote(tableInfo.tableName) + " AS target"
+                + " USING (VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")) AS source (" + columnStr + ")"
+                + " ON " + tableInfo.allKeys.stream().map(s -> "target." + quote(s) + " = source." + quote(s)).collect(Collectors.joining(" AND "))
+                + matchedStr
+                + " WHEN NOT MATCHED THEN INSERT (" + columnStr + ")"
+                + " VALUES (" + columns.stream().map(s -> "source." + quote(s)).collect(Collectors.joining(", ")) + ");";
+    }
+
 }
@@ -26,6 +26,10 @@ package net.benpl.r2dbc.support;
 
 import org.springframework.data.r2dbc.core.DatabaseClient;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * MySQL Adaptation.
  */
@@ -35,4 +39,57 @@ public class Mysql extends Abstract {
         super(databaseClient);
     }
 
+    public Mysql(DatabaseClient databaseClient, Metrics metrics) {
+        super(databaseClient, metrics);
+    }
+
+    public Mysql(DatabaseClient databaseClient, Metrics metrics, SlowQueryLog slowQueryLog) {
+        super(databaseClient, metrics, slowQueryLog);
+    }
+
+    private Mysql(DatabaseClient replicaClient, Mysql primary) {
+        super(replicaClient, primary);
+    }
+
+    @Override
+    Abstract replica(DatabaseClient replicaClient) {
+        return new Mysql(replicaClient, this);
+    }
+
+    @Override
+    int maxBindParameters() {
+        return 65535;
+    }
+
+    @Override
+    boolean supportsRowValueIn() {
+        return true;
+    }
+
+    /**
+     * TABLE_ROWS of information_schema.TABLES. (Estimated by InnoDB)
+     */
+    @Override
+    String approximateCountSql() {
+        return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    }
+
+    /**
+     * INSERT ... ON DUPLICATE KEY UPDATE ...
+     * (Note: MySQL takes conflicts on any UNIQUE index as duplicate, not only on primary key.)
+     */
+    @Override
+    String upsertSql(TableInfo<?> tableInfo, List<String> columns) {
+        List<String> nonKeys = columns.stream().filter(s -> !tableInfo.allKeys.contains(s)).collect(Collectors.toList());
+
+        String updateStr = nonKeys.isEmpty()
+                ? quote(tableInfo.allKeys.get(0)) + " = " + quote(tableInfo.allKeys.get(0))
+                : nonKeys.stream().map(s -> quote(s) + " = VALUES(" + quote(s) + ")").collect(Collectors.joining(", "));
+
+        return "INSERT INTO " + quote(tableInfo.tableName)
+                + " (" + columns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")"
+                + " ON DUPLICATE KEY UPDATE " + updateStr;
+    }
+
 }
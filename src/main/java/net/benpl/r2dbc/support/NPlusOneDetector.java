@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.R2dbc;
+import net.benpl.r2dbc.exception.NPlusOneException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Since 1.2: {@link R2dbc} detecting the same query repeated within one request, typically a findById() per row of a
+ * previous query ("N+1 queries").
+ * <p>
+ * Requests are marked by {@link #request(Mono)} / {@link #request(Flux)}, which put a counter into the Reactor
+ * {@link Context}. Within a request, {@link #findById(Class, Object)} & {@link #existsById(Class, Object)} are counted
+ * per entity type, and {@link #select(Class, String, Object...)} per entity type & SQL fingerprint. (See
+ * {@link SlowQueryLog#fingerprint(String)}) Operations outside of requests are not counted.
+ * <p>
+ * When the same query runs more than threshold times, it is logged once per request, or fails with
+ * {@link NPlusOneException}. Both report the call site. Stack traces are only captured once an operation of the entity
+ * type has exceeded the threshold: from then on when the operation is called, so the caller is on the stack, and the
+ * first time at subscription. It is still a diagnostic mode for tests & staging rather than production.
+ * <pre>
+ * R2dbc r2dbc = new NPlusOneDetector(R2dbc.of(databaseClient, Type.MYSQL), 10, NPlusOneDetector.Action.FAIL);
+ *
+ * // e.g. in a WebFilter
+ * return NPlusOneDetector.request(chain.filter(exchange));
+ * </pre>
+ */
+public class NPlusOneDetector extends Delegating {
+
+    private static final Log logger = LogFactory.getLog(NPlusOneDetector.class);
+
+    /**
+     * Key of the counter in {@link Context}.
+     */
+    private static final Object REQUEST = NPlusOneDetector.class;
+
+    public enum Action {
+        /**
+         * Logs a warning once per request & query, and continues.
+         */
+        WARN,
+
+        /**
+         * Fails the operation with {@link NPlusOneException}.
+         */
+        FAIL
+    }
+
+    private final int threshold;
+    private final Action action;
+
+    /**
+     * Entity type & operation exceeded threshold before, whose call sites are captured.
+     */
+    private final Set<List<Object>> suspects = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param threshold times the same query may run within one request.
+     * @param action    what to do beyond the threshold.
+     */
+    public NPlusOneDetector(R2dbc delegate, int threshold, Action action) {
+        super(delegate);
+        this.threshold = threshold;
+        this.action = action;
+    }
+
+    /**
+     * Counts queries of the subscription as one request.
+     */
+    public static <T> Mono<T> request(Mono<T> mono) {
+        return mono.subscriberContext(context -> context.put(REQUEST, new Counter()));
+    }
+
+    /**
+     * Counts queries of the subscription as one request.
+     */
+    public static <T> Flux<T> request(Flux<T> flux) {
+        return flux.subscriberContext(context -> context.put(REQUEST, new Counter()));
+    }
+
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        return detect(clazz, "existsById", () -> delegate.existsById(clazz, id));
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        return detect(clazz, "findById", () -> delegate.findById(clazz, id));
+    }
+
+    @Override
+    public <T> Flux<T> select(Class<T> clazz, String sql, Object... params) {
+        Throwable callSite = callSite(clazz, "select");
+
+        return Mono.subscriberContext()
+                .flatMapMany(context -> {
+                    NPlusOneException exception = check(context, clazz, "select", sql, callSite);
+                    return exception == null ? delegate.select(clazz, sql, params) : Flux.error(exception);
+                });
+    }
+
+    private <R> Mono<R> detect(Class<?> clazz, String operation, Supplier<Mono<R>> read) {
+        Throwable callSite = callSite(clazz, operation);
+
+        return Mono.subscriberContext()
+                .flatMap(context -> {
+                    NPlusOneException exception = check(context, clazz, operation, null, callSite);
+                    return exception == null ? read.get() : Mono.error(exception);
+                });
+    }
+
+    /**
+     * Captured at assembly, where the caller is still on the stack, but only for suspects.
+     *
+     * @return the call site, or {@literal null} if the operation never exceeded threshold.
+     */
+    private Throwable callSite(Class<?> clazz, String operation) {
+        if (suspects.isEmpty() || !suspects.contains(Arrays.asList(clazz, operation))) {
+            return null;
+        }
+
+        return new Throwable("Call site of " + operation + "(" + clazz.getName() + ")");
+    }
+
+    /**
+     * Counts the query in the request, if any.
+     *
+     * @param sql      SQL of select, counted by fingerprint, or {@literal null} to count the operation.
+     * @param callSite captured at assembly, or {@literal null} if not a suspect then.
+     * @return the exception to fail with, or {@literal null} to continue.
+     */
+    private NPlusOneException check(Context context, Class<?> clazz, String operation, String sql, Throwable callSite) {
+        Counter counter = context.getOrDefault(REQUEST, null);
+
+        if (counter == null) {
+            return null;
+        }
+
+        String query = sql == null ? operation : SlowQueryLog.normalize(sql);
+        int count = counter.increment(Arrays.asList(clazz, query));
+
+        if (count <= threshold) {
+            return null;
+        }
+
+        if (action == Action.WARN && count > threshold + 1) {
+            return null;
+        }
+
+        if (callSite == null) {
+            // Later calls are captured at assembly.
+            suspects.add(Arrays.asList(clazz, operation));
+            callSite = new Throwable("Subscription of " + operation + "(" + clazz.getName() + ")");
+        }
+
+        String message = "N+1 queries: " + query + " of " + clazz.getName()
+                + " executed " + count + " times within one request. (threshold " + threshold + ")";
+
+        if (action == Action.FAIL) {
+            return new NPlusOneException(message, callSite);
+        }
+
+        logger.warn(message, callSite);
+        return null;
+    }
+
+    /**
+     * Times of queries within one request.
+     */
+    private static class Counter {
+        private final Map<List<Object>, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        private int increment(List<Object> key) {
+            return counts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+}
@@ -26,6 +26,10 @@ package net.benpl.r2dbc.support;
 
 import org.springframework.data.r2dbc.core.DatabaseClient;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * PostgreSQL Adaptation.
  */
@@ -35,4 +39,84 @@ public class Postgres extends Abstract {
         super(databaseClient);
     }
 
+    public Postgres(DatabaseClient databaseClient, Metrics metrics) {
+        super(databaseClient, metrics);
+    }
+
+    public Postgres(DatabaseClient databaseClient, Metrics metrics, SlowQueryLog slowQueryLog) {
+        super(databaseClient, metrics, slowQueryLog);
+    }
+
+    private Postgres(DatabaseClient replicaClient, Postgres primary) {
+        super(replicaClient, primary);
+    }
+
+    @Override
+    Abstract replica(DatabaseClient replicaClient) {
+        return new Postgres(replicaClient, this);
+    }
+
+    @Override
+    int maxBindParameters() {
+        return 32767;
+    }
+
+    @Override
+    boolean supportsRowValueIn() {
+        return true;
+    }
+
+    @Override
+    String quote(String identifier) {
+        return "\"" + identifier + "\"";
+    }
+
+    /**
+     * $1, $2, ...
+     */
+    @Override
+    String bindMarker(int index) {
+        return "$" + (index + 1);
+    }
+
+    /**
+     * INSERT ... RETURNING ...
+     */
+    @Override
+    String insertSql(TableInfo<?> tableInfo, List<String> columns, String generatedKey) {
+        String sql = super.insertSql(tableInfo, columns, generatedKey);
+        return generatedKey == null ? sql : sql + " RETURNING " + quote(generatedKey);
+    }
+
+    @Override
+    boolean generatedKeyInSql() {
+        return true;
+    }
+
+    /**
+     * reltuples of pg_class. (-1 if never vacuumed or analyzed)
+     */
+    @Override
+    String approximateCountSql() {
+        return "SELECT reltuples FROM pg_class WHERE relname = ? AND relkind IN ('r', 'p') AND pg_table_is_visible(oid)";
+    }
+
+    /**
+     * INSERT ... ON CONFLICT (...) DO UPDATE SET ...
+     */
+    @Override
+    String upsertSql(TableInfo<?> tableInfo, List<String> columns) {
+        List<String> nonKeys = columns.stream().filter(s -> !tableInfo.allKeys.contains(s)).collect(Collectors.toList());
+
+        String conflictStr = nonKeys.isEmpty()
+                ? "DO NOTHING"
+                : "DO UPDATE SET " + nonKeys.stream().map(s -> quote(s) + " = EXCLUDED." + quote(s)).collect(Collectors.joining(", "));
+
+        return "INSERT INTO " + quote(tableInfo.tableName)
+                + " (" + columns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")"
+                + " ON CONFLICT (" + tableInfo.allKeys.stream().map(this::quote).collect(Collectors.joining(", ")) + ") "
+                + conflictStr;
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.CountMode;
+import net.benpl.r2dbc.R2dbc;
+import net.benpl.r2dbc.exception.R2dbcException;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Since 1.2: {@link R2dbc} splitting reads to replicas.
+ * <p>
+ * {@link #count(Class)} (all overloads), {@link #existsById(Class, Object)}, {@link #findById(Class, Object)},
+ * {@link #findAllById(Class, Collection)}, {@link #findAll(Class)}, {@link #findAllParallel(Class, int, boolean)}, {@link #streamAll(Class, Object, int)} and {@link #select(Class, String, Object...)} go to
+ * one of the replicas, picked by {@link Balancing}. Writes, and anything within a transaction, go to the primary.
+ * <p>
+ * Replicas may lag behind the primary, so a read right after a write outside of transaction may not see it.
+ * Replicas created by {@link #of(R2dbc, List, Balancing)} read the entity caches (see
+ * {@link net.benpl.r2dbc.annotation.Table#cacheSize()}) of the primary, but never put entities into them, so a lagging
+ * replica cannot bring back an entity evicted by a write.
+ * <pre>
+ * R2dbc r2dbc = R2dbc.of(primaryClient, Arrays.asList(replicaClient1, replicaClient2), Type.MYSQL);
+ * </pre>
+ */
+public class Routing extends Delegating {
+
+    /**
+     * How a replica is picked for each read.
+     */
+    public enum Balancing {
+        /**
+         * Replicas in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The replica with the fewest reads in flight, the first one among equals.
+         */
+        LEAST_OUTSTANDING
+    }
+
+    private final R2dbc[] replicas;
+    private final Balancing balancing;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Reads in flight, by replica.
+     */
+    private final AtomicInteger[] outstanding;
+
+    /**
+     * Replicas are used as given, with their own entity caches if any. (See {@link #of(R2dbc, List, Balancing)})
+     */
+    public Routing(R2dbc primary, @NonNull List<? extends R2dbc> replicas, @NonNull Balancing balancing) {
+        super(primary);
+
+        if (replicas.isEmpty()) {
+            throw new R2dbcException("Routing: no replica.");
+        }
+
+        this.replicas = replicas.toArray(new R2dbc[0]);
+        this.balancing = balancing;
+        this.outstanding = new AtomicInteger[this.replicas.length];
+
+        for (int i = 0; i < this.replicas.length; i++) {
+            this.outstanding[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Creates replicas of the primary on the replica databases, with the same settings, reading the entity caches of
+     * the primary.
+     *
+     * @param primary created by {@link R2dbc#of(DatabaseClient, net.benpl.r2dbc.Type)} or the adaptations.
+     */
+    public static Routing of(@NonNull R2dbc primary, @NonNull List<DatabaseClient> replicas, @NonNull Balancing balancing) {
+        if (!(primary instanceof Abstract)) {
+            throw new R2dbcException("Routing: primary " + primary.getClass().getCanonicalName() + " is not an R2dbc adaptation.");
+        }
+
+        List<R2dbc> replicaR2dbcs = new ArrayList<>(replicas.size());
+
+        for (DatabaseClient replica : replicas) {
+            replicaR2dbcs.add(((Abstract) primary).replica(replica));
+        }
+
+        return new Routing(primary, replicaR2dbcs, balancing);
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz) {
+        return read(r2dbc -> r2dbc.count(clazz));
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, CountMode mode) {
+        return read(r2dbc -> r2dbc.count(clazz, mode));
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, Duration maxAge) {
+        return read(r2dbc -> r2dbc.count(clazz, maxAge));
+    }
+
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        return read(r2dbc -> r2dbc.existsById(clazz, id));
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        return read(r2dbc -> r2dbc.findById(clazz, id));
+    }
+
+    @Override
+    public <T> Flux<T> findAllById(Class<T> clazz, Collection<?> ids) {
+        return readMany(r2dbc -> r2dbc.findAllById(clazz, ids));
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz) {
+        return readMany(r2dbc -> r2dbc.findAll(clazz));
+    }
+
+    @Override
+    public <T> Flux<T> findAllParallel(Class<T> clazz, int parallelism, boolean ordered) {
+        return readMany(r2dbc -> r2dbc.findAllParallel(clazz, parallelism, ordered));
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz, int pageSize) {
+        return readMany(r2dbc -> r2dbc.findAll(clazz, pageSize));
+    }
+
+    @Override
+    public <T> Flux<T> streamAll(Class<T> clazz, Object afterId, int pageSize) {
+        return readMany(r2dbc -> r2dbc.streamAll(clazz, afterId, pageSize));
+    }
+
+    @Override
+    public <T> Flux<T> select(Class<T> clazz, String sql, Object... params) {
+        return readMany(r2dbc -> r2dbc.select(clazz, sql, params));
+    }
+
+    private <R> Mono<R> read(Function<R2dbc, Mono<R>> operation) {
+        return Transactions.current()
+                .hasElement()
+                .flatMap(inTransaction -> {
+                    if (inTransaction) {
+                        return operation.apply(delegate);
+                    }
+
+                    int i = pick();
+
+                    // Deferred, so that a failing operation is counted back down as well.
+                    return Mono.defer(() -> operation.apply(replicas[i]))
+                            .doOnSubscribe(subscription -> outstanding[i].incrementAndGet())
+                            .doFinally(signal -> outstanding[i].decrementAndGet());
+                });
+    }
+
+    private <R> Flux<R> readMany(Function<R2dbc, Flux<R>> operation) {
+        return Transactions.current()
+                .hasElement()
+                .flatMapMany(inTransaction -> {
+                    if (inTransaction) {
+                        return operation.apply(delegate);
+                    }
+
+                    int i = pick();
+
+                    // Deferred, so that a failing operation is counted back down as well.
+                    return Flux.defer(() -> operation.apply(replicas[i]))
+                            .doOnSubscribe(subscription -> outstanding[i].incrementAndGet())
+                            .doFinally(signal -> outstanding[i].decrementAndGet());
+                });
+    }
+
+    /**
+     * @return index of the replica for next read.
+     */
+    private int pick() {
+        if (balancing == Balancing.ROUND_ROBIN) {
+            return (next.getAndIncrement() & Integer.MAX_VALUE) % replicas.length;
+        }
+
+        int picked = 0;
+        int least = Integer.MAX_VALUE;
+
+        for (int i = 0; i < outstanding.length; i++) {
+            int n = outstanding[i].get();
+            if (n < least) {
+                picked = i;
+                least = n;
+            }
+        }
+
+        return picked;
+    }
+}
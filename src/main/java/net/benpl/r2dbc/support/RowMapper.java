@@ -27,30 +27,69 @@ package net.benpl.r2dbc.support;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.annotation.Table;
 import net.benpl.r2dbc.exception.R2dbcException;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 /**
  * Mapper to convert a Row data to java object
+ * <p>
+ * 1.2: one shared instance per class (see {@link #of(Class)}). Column names are resolved to fields once per distinct
+ * {@link RowMetadata} shape, so each row is mapped by position.
  */
 class RowMapper<T> implements BiFunction<Row, RowMetadata, T> {
 
+    private static final ClassValue<RowMapper<?>> REGISTRY = new ClassValue<RowMapper<?>>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> clazz) {
+            return new RowMapper<>(clazz);
+        }
+    };
+
     private final Class<T> clazz;
     private final String className;
 
+    /**
+     * Since 1.2: if mapped entities are snapshotted. (See {@link Table#dynamicUpdate()})
+     */
+    private final boolean tracked;
+
+    /**
+     * Since 1.2: if mapped entities are kept in the identity map of transaction. (See {@link Table#identityMap()})
+     */
+    final boolean identityMapped;
+
     private final Map<String, Field> allFields = new LinkedHashMap<>();
     private final Map<String, Field> allColumns = new LinkedHashMap<>();
 
-    RowMapper(Class<T> clazz) {
+    /**
+     * Plans by column names, other than the scalar one.
+     */
+    private final Map<List<String>, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Plan of a single column of the mapped type itself, decided by column type for each {@link RowMetadata}.
+     */
+    private final Plan scalarPlan = new Plan();
+
+    /**
+     * The last used plan, checked by identity of {@link RowMetadata} before anything else.
+     */
+    private volatile Shape last;
+
+    private RowMapper(Class<T> clazz) {
         this.clazz = clazz;
         this.className = clazz.getCanonicalName();
 
+        Table table = clazz.getAnnotation(Table.class);
+        this.tracked = table != null && table.dynamicUpdate();
+        this.identityMapped = table != null && table.identityMap();
+
         for (Field field : clazz.getDeclaredFields()) {
             this.allFields.put(field.getName(), field);
             Column column = field.getAnnotation(Column.class);
@@ -60,56 +99,201 @@ class RowMapper<T> implements BiFunction<Row, RowMetadata, T> {
         }
     }
 
+    static <T> RowMapper<T> of(Class<T> clazz) {
+        @SuppressWarnings("unchecked")
+        RowMapper<T> rowMapper = (RowMapper<T>) REGISTRY.get(clazz);
+        return rowMapper;
+    }
+
+    /**
+     * Since 1.2: mapper looking up instances in identity map by primary key before creating new ones.
+     *
+     * @param identityMap identity map of current transaction, or {@literal null} if not in a transaction.
+     */
+    BiFunction<Row, RowMetadata, T> with(IdentityMap identityMap) {
+        if (identityMap == null || !identityMapped) {
+            return this;
+        }
+
+        return (row, metadata) -> apply(row, metadata, identityMap);
+    }
+
     /**
      * Converts a Row data to java object.
      */
     @Override
     public T apply(Row row, RowMetadata metadata) {
-        Collection<String> columnNames = metadata.getColumnNames();
+        return apply(row, metadata, null);
+    }
 
-        if (columnNames.size() == 1) {
-            Class<?> javaType = metadata.getColumnMetadata(0).getJavaType();
-            assert javaType != null;
-            if (javaType.equals(clazz)) {
-                return clazz.cast(row.get(0));
-            }
+    private T apply(Row row, RowMetadata metadata, IdentityMap identityMap) {
+        Plan plan = planOf(metadata);
+
+        if (plan.scalar) {
+            return clazz.cast(row.get(0));
         }
 
+        if (identityMap == null || plan.keyOrdinals == null) {
+            return newInstance(plan, row, null);
+        }
+
+        Class<?>[] types = plan.types;
+        Object[] values = new Object[types.length];
+
+        for (int i = 0; i < types.length; i++) {
+            values[i] = row.get(i, types[i]);
+        }
+
+        List<Object> key = new ArrayList<>(plan.keyOrdinals.length);
+        for (int ordinal : plan.keyOrdinals) {
+            key.add(TableInfo.normalize(values[ordinal]));
+        }
+
+        T existing = identityMap.get(clazz, key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        return identityMap.putIfAbsent(clazz, key, newInstance(plan, row, values));
+    }
+
+    /**
+     * @param values column values already read, or {@literal null} to read from row.
+     */
+    private T newInstance(Plan plan, Row row, Object[] values) {
         T instance;
 
         try {
-            instance = clazz.getDeclaredConstructor().newInstance();
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            instance = Utils.newInstance(clazz);
+        } catch (ReflectiveOperationException e) {
             throw new R2dbcException(String.format("%s: field to create instance.", className), e);
         }
 
-        for (String columnName : columnNames) {
-            Object value = row.get(columnName);
+        FieldAccessor[] accessors = plan.accessors;
+        Class<?>[] types = plan.types;
+
+        for (int i = 0; i < accessors.length; i++) {
+            accessors[i].set(instance, values == null ? row.get(i, types[i]) : values[i]);
+        }
+
+        if (tracked) {
+            Snapshots.take(TableInfo.of(clazz), instance);
+        }
+
+        return instance;
+    }
+
+    private Plan planOf(RowMetadata metadata) {
+        Shape shape = last;
+
+        if (shape != null && shape.metadata == metadata) {
+            return shape.plan;
+        }
+
+        List<String> columnNames = new ArrayList<>(metadata.getColumnNames());
+        Plan plan;
+
+        if (columnNames.size() == 1 && clazz.equals(metadata.getColumnMetadata(0).getJavaType())) {
+            plan = scalarPlan;
+        } else {
+            plan = plans.get(columnNames);
+
+            if (plan == null) {
+                plan = plans.computeIfAbsent(columnNames, Plan::new);
+            }
+        }
+
+        last = new Shape(metadata, plan);
+
+        return plan;
+    }
+
+    private class Shape {
+        private final RowMetadata metadata;
+        private final Plan plan;
+
+        private Shape(RowMetadata metadata, Plan plan) {
+            this.metadata = metadata;
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Column ordinal => field.
+     */
+    private class Plan {
 
-            Field field = allColumns.get(columnName);
+        /**
+         * If the only column is of the mapped type itself. (e.g. SELECT COUNT(*) mapped to Long)
+         */
+        private final boolean scalar;
 
-            if (field != null) {
-                // 1. setFieldValue: @Column exists, set value to associated field.
-                Utils.setFieldValue(instance, field, value);
-            } else {
-                // 2. setFieldValue: @Column not exists, set value to ColumnName corresponding field.
+        private final FieldAccessor[] accessors;
+        private final Class<?>[] types;
 
-                // FieldName <= ColumnName
-                String fieldName = Utils.toCamelCase(columnName, false);
+        /**
+         * Since 1.2: ordinals of primary key columns, or {@literal null} if not identity mapped or any key column absent.
+         */
+        private final int[] keyOrdinals;
 
-                // Field <= FieldName
-                field = allFields.get(fieldName);
+        /**
+         * The scalar plan.
+         */
+        private Plan() {
+            this.scalar = true;
+            this.accessors = new FieldAccessor[0];
+            this.types = new Class<?>[0];
+            this.keyOrdinals = null;
+        }
+
+        private Plan(List<String> columnNames) {
+            this.scalar = false;
+            this.accessors = new FieldAccessor[columnNames.size()];
+            this.types = new Class<?>[columnNames.size()];
+
+            List<Field> keyFields = new ArrayList<>();
+
+            if (identityMapped) {
+                TableInfo<T> tableInfo = TableInfo.of(clazz);
+                for (String key : tableInfo.allKeys) {
+                    keyFields.add(tableInfo.allFields.get(key));
+                }
+            }
+
+            int[] keyOrdinals = new int[keyFields.size()];
+
+            for (int i = 0; i < columnNames.size(); i++) {
+                String columnName = columnNames.get(i);
+                Field field = allColumns.get(columnName);
 
                 if (field == null) {
-                    throw new R2dbcException(String.format("%s: field [%s] not found. (column %s)", className, fieldName, columnName));
+                    // @Column not exists, set value to ColumnName corresponding field.
+
+                    // FieldName <= ColumnName
+                    String fieldName = Utils.toCamelCase(columnName, false);
+
+                    // Field <= FieldName
+                    field = allFields.get(fieldName);
+
+                    if (field == null) {
+                        throw new R2dbcException(String.format("%s: field [%s] not found. (column %s)", className, fieldName, columnName));
+                    }
                 }
 
-                // sets value to field.
-                Utils.setFieldValue(instance, field, value);
+                accessors[i] = FieldAccessor.of(clazz, field);
+                types[i] = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+
+                int k = keyFields.indexOf(field);
+                if (k >= 0) {
+                    keyOrdinals[k] = i;
+                    keyFields.set(k, null);
+                }
             }
-        }
 
-        return instance;
+            boolean allKeysPresent = !keyFields.isEmpty() && keyFields.stream().allMatch(Objects::isNull);
+            this.keyOrdinals = allKeysPresent ? keyOrdinals : null;
+        }
     }
 
 }
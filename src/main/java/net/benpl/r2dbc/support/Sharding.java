@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.CountMode;
+import net.benpl.r2dbc.R2dbc;
+import net.benpl.r2dbc.ShardFunction;
+import net.benpl.r2dbc.annotation.Table;
+import net.benpl.r2dbc.exception.R2dbcException;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Since 1.2: {@link R2dbc} spreading entities over shards by primary key.
+ * <p>
+ * The shard of an entity is decided by the {@link ShardFunction} of its {@link Table#shardFunction()}, from the
+ * values of primary key. So entities must have primary key assigned before save, and AUTO_INCREMENT keys are not
+ * supported.
+ * <ul>
+ * <li>{@link #findById(Class, Object)}, {@link #existsById(Class, Object)}, {@link #save(Object)},
+ * {@link #upsert(Object)}, {@link #delete(Object)} & {@link #deleteById(Class, Object)} go to the shard of the key.</li>
+ * <li>{@link #saveAll(Publisher, int)}, {@link #findAllById(Class, Collection)} & {@link #deleteAll(List, int)} are
+ * split by shard, and each part goes to its shard.</li>
+ * <li>{@link #count(Class)}, {@link #findAll(Class)}, {@link #deleteAll(Class)}, {@link #select(Class, String, Object...)}
+ * & {@link #update(String, Object...)} go to all shards, with results merged as they arrive.</li>
+ * <li>{@link #execute(String, Object...)} is not supported, use {@link #shard(int)} instead.</li>
+ * </ul>
+ * Each shard is a separate database, so a transaction covers one shard only.
+ * <pre>
+ * R2dbc r2dbc = R2dbc.sharded(Arrays.asList(databaseClient1, databaseClient2), Type.MYSQL);
+ * </pre>
+ */
+public class Sharding implements R2dbc {
+
+    private static final ClassValue<ShardFunction> FUNCTIONS = new ClassValue<ShardFunction>() {
+        @Override
+        protected ShardFunction computeValue(Class<?> clazz) {
+            Table table = clazz.getAnnotation(Table.class);
+            Class<? extends ShardFunction> functionClass = table == null ? ShardFunction.Hash.class : table.shardFunction();
+
+            try {
+                return Utils.newInstance(functionClass);
+            } catch (ReflectiveOperationException e) {
+                throw new R2dbcException(String.format("%s: field to create instance.", functionClass.getCanonicalName()), e);
+            }
+        }
+    };
+
+    private final R2dbc[] shards;
+
+    public Sharding(@NonNull List<? extends R2dbc> shards) {
+        if (shards.isEmpty()) {
+            throw new R2dbcException("Sharding: no shard.");
+        }
+
+        this.shards = shards.toArray(new R2dbc[0]);
+    }
+
+    /**
+     * @return the shard at index, for operations across entities of one shard. (e.g. transactions, execute())
+     */
+    public R2dbc shard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * @return the number of shards.
+     */
+    public int size() {
+        return shards.length;
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.count(clazz))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, CountMode mode) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.count(clazz, mode))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Each shard caches its own count.
+     */
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz, Duration maxAge) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.count(clazz, maxAge))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        return shards[indexOf(clazz, id)].existsById(clazz, id);
+    }
+
+    @Override
+    public <T> Mono<T> save(@NonNull T entity) {
+        return shards[indexOf(entity)].save(entity);
+    }
+
+    @Override
+    public <T> Mono<T> upsert(@NonNull T entity) {
+        return shards[indexOf(entity)].upsert(entity);
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Iterable<T> entities) {
+        return saveAll(Flux.fromIterable(entities), DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities) {
+        return saveAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Each batch is split by shard, and parts are saved on their shards at the same time.
+     */
+    @Override
+    public <T> Flux<T> saveAll(Publisher<T> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new R2dbcException("saveAll: invalid batch size " + batchSize + ".");
+        }
+
+        return Flux.from(entities)
+                .buffer(batchSize)
+                .concatMap(batch -> Flux.fromIterable(partition(batch).entrySet())
+                        .flatMap(part -> shards[part.getKey()].saveAll(part.getValue()))
+                        .thenMany(Flux.fromIterable(batch)), 1);
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        return shards[indexOf(clazz, id)].findById(clazz, id);
+    }
+
+    @Override
+    public <T> Flux<T> findAllById(Class<T> clazz, Collection<?> ids) {
+        Map<Integer, List<Object>> parts = new TreeMap<>();
+
+        for (Object id : ids) {
+            parts.computeIfAbsent(indexOf(clazz, id), k -> new ArrayList<>()).add(id);
+        }
+
+        return Flux.fromIterable(parts.entrySet())
+                .flatMap(part -> shards[part.getKey()].findAllById(clazz, part.getValue()));
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.findAll(clazz));
+    }
+
+    /**
+     * Each shard is scanned in parallel. If ordered, streams of all shards are merged in the order of primary key.
+     */
+    @Override
+    public <T> Flux<T> findAllParallel(Class<T> clazz, int parallelism, boolean ordered) {
+        if (!ordered) {
+            return Flux.fromArray(shards)
+                    .flatMap(shard -> shard.findAllParallel(clazz, parallelism, false));
+        }
+
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        @SuppressWarnings("unchecked")
+        Flux<T>[] streams = Arrays.stream(shards).map(shard -> shard.findAllParallel(clazz, parallelism, true)).toArray(Flux[]::new);
+
+        return Flux.mergeOrdered(Comparator.comparing(tableInfo::entityKey, Sharding::compareKeys), streams);
+    }
+
+    @Override
+    public <T> Flux<T> findAll(Class<T> clazz, int pageSize) {
+        return streamAll(clazz, null, pageSize);
+    }
+
+    /**
+     * Streams of all shards are merged in the order of primary key, so the id of the last entity received resumes
+     * all shards. (Keys are compared in Java, which may differ from the collation of string keys in database.)
+     */
+    @Override
+    public <T> Flux<T> streamAll(Class<T> clazz, Object afterId, int pageSize) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+
+        @SuppressWarnings("unchecked")
+        Flux<T>[] streams = Arrays.stream(shards).map(shard -> shard.streamAll(clazz, afterId, pageSize)).toArray(Flux[]::new);
+
+        return Flux.mergeOrdered(Comparator.comparing(tableInfo::entityKey, Sharding::compareKeys), streams);
+    }
+
+    @Override
+    public <T> Mono<Boolean> delete(@NonNull T entity) {
+        return shards[indexOf(entity)].delete(entity);
+    }
+
+    @Override
+    public <T> Mono<Integer> deleteAll(List<T> entities) {
+        return deleteAll(entities, 1);
+    }
+
+    /**
+     * Entities are split by shard, and parts are deleted on their shards at the same time.
+     */
+    @Override
+    public <T> Mono<Integer> deleteAll(List<T> entities, int concurrency) {
+        if (concurrency <= 0) {
+            throw new R2dbcException("deleteAll: invalid concurrency " + concurrency + ".");
+        }
+
+        return Flux.fromIterable(partition(entities).entrySet())
+                .flatMap(part -> shards[part.getKey()].deleteAll(part.getValue(), concurrency))
+                .reduce(0, Integer::sum);
+    }
+
+    @Override
+    public <T> Mono<Boolean> deleteById(Class<T> clazz, @NonNull Object id) {
+        return shards[indexOf(clazz, id)].deleteById(clazz, id);
+    }
+
+    @Override
+    public <T> Mono<Integer> deleteAll(Class<T> clazz) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.deleteAll(clazz))
+                .reduce(0, Integer::sum);
+    }
+
+    @Override
+    public <T> Flux<T> select(Class<T> clazz, String sql, Object... params) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.select(clazz, sql, params));
+    }
+
+    @Override
+    public Mono<Integer> update(String sql, Object... params) {
+        return Flux.fromArray(shards)
+                .flatMap(shard -> shard.update(sql, params))
+                .reduce(0, Integer::sum);
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec execute(String sql, Object... params) {
+        throw new R2dbcException("Sharding: execute() is not supported, use shard(index).execute().");
+    }
+
+    private <T> int indexOf(Class<T> clazz, Object id) {
+        TableInfo<T> tableInfo = TableInfo.of(clazz);
+        return indexOf(tableInfo, tableInfo.idKey(id));
+    }
+
+    private <T> int indexOf(T entity) {
+        TableInfo<T> tableInfo = TableInfo.of(entity);
+
+        if (tableInfo.allKeys.isEmpty()) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: primary key not found.");
+        }
+
+        if (tableInfo.isKeyNull(entity)) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: primary key must be assigned to be sharded.");
+        }
+
+        return indexOf(tableInfo, tableInfo.entityKey(entity));
+    }
+
+    private int indexOf(TableInfo<?> tableInfo, List<Object> key) {
+        int index = FUNCTIONS.get(tableInfo.clazz).shardOf(key, shards.length);
+
+        if (index < 0 || index >= shards.length) {
+            throw new R2dbcException("Table [" + tableInfo.tableName + "]: shard " + index + " out of range.");
+        }
+
+        return index;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(List<Object> a, List<Object> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = ((Comparable) a.get(i)).compareTo(b.get(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return entities by index of shard.
+     */
+    private <T> Map<Integer, List<T>> partition(List<T> entities) {
+        Map<Integer, List<T>> parts = new TreeMap<>();
+
+        for (T entity : entities) {
+            parts.computeIfAbsent(indexOf(entity), k -> new ArrayList<>()).add(entity);
+        }
+
+        return parts;
+    }
+}
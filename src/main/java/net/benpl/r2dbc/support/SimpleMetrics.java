@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Since 1.2: dependency-free {@link Metrics} keeping counters and a latency histogram per entity class & operation.
+ * <p>
+ * The histogram has 4 buckets per power of 2 of nanoseconds, so percentiles are within 25% of the actual latency.
+ */
+public class SimpleMetrics implements Metrics {
+
+    private static final int OPERATIONS = Operation.values().length;
+
+    private final ClassValue<Stats[]> registry = new ClassValue<Stats[]>() {
+        @Override
+        protected Stats[] computeValue(Class<?> clazz) {
+            Stats[] stats = new Stats[OPERATIONS];
+            for (int i = 0; i < OPERATIONS; i++) {
+                stats[i] = new Stats();
+            }
+            return stats;
+        }
+    };
+
+    @Override
+    public void record(Class<?> entityClass, Operation operation, long nanos, long rowsMapped, long rowsAffected, int bindParameters, boolean failed) {
+        registry.get(entityClass)[operation.ordinal()].record(nanos, rowsMapped, rowsAffected, bindParameters, failed);
+    }
+
+    /**
+     * @return statistics of entity class & operation.
+     */
+    public Stats stats(Class<?> entityClass, Operation operation) {
+        return registry.get(entityClass)[operation.ordinal()];
+    }
+
+    /**
+     * Statistics of one entity class & operation.
+     */
+    public static class Stats {
+
+        /**
+         * Buckets up to 2^62 nanoseconds.
+         */
+        private static final int BUCKETS = 248;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rowsMapped = new LongAdder();
+        private final LongAdder rowsAffected = new LongAdder();
+        private final LongAdder bindParameters = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, long rowsMapped, long rowsAffected, int bindParameters, boolean failed) {
+            this.count.increment();
+            if (failed) {
+                this.failures.increment();
+            }
+            this.totalNanos.add(nanos);
+            this.rowsMapped.add(rowsMapped);
+            this.rowsAffected.add(rowsAffected);
+            this.bindParameters.add(bindParameters);
+            this.histogram.incrementAndGet(bucketOf(nanos));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long rowsMapped() {
+            return rowsMapped.sum();
+        }
+
+        public long rowsAffected() {
+            return rowsAffected.sum();
+        }
+
+        public long bindParameters() {
+            return bindParameters.sum();
+        }
+
+        /**
+         * @param quantile from 0 to 1, e.g. 0.99
+         * @return the latency in nanoseconds (upper bound of its bucket), or 0 if nothing recorded.
+         */
+        public long percentile(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i + 1 < BUCKETS ? lowerBoundOf(i + 1) - 1 : Long.MAX_VALUE;
+                }
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * 0-3 ns by value, then 4 buckets per power of 2.
+         */
+        static int bucketOf(long nanos) {
+            if (nanos < 4) {
+                return (int) Math.max(nanos, 0);
+            }
+
+            int exp = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exp - 2)) & 3;
+            return (exp - 1) * 4 + sub;
+        }
+
+        static long lowerBoundOf(int bucket) {
+            if (bucket < 4) {
+                return bucket;
+            }
+
+            int exp = bucket / 4 + 1;
+            return (long) (4 + bucket % 4) << (exp - 2);
+        }
+    }
+}
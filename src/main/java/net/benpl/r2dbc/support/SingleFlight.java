@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.NonNull;
+import net.benpl.r2dbc.R2dbc;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Since 1.2: {@link R2dbc} sharing one execution among identical reads in flight.
+ * <p>
+ * While a {@link #findById(Class, Object)}, {@link #existsById(Class, Object)} or {@link #count(Class)} is running, the
+ * same call (same entity type & parameters) joins it and gets the same result, instead of querying again. The query is
+ * executed once more after it completes. Only single results are shared, so a flight keeps at most one of them;
+ * {@link #select(Class, String, Object...)} is not shared, as joining callers would hold the whole result set.
+ * <p>
+ * Reads within transactions are never shared. Shared queries run in the subscription of the first caller, e.g. for hot
+ * configuration rows. Shared entities are the same instances for all callers.
+ * <pre>
+ * R2dbc r2dbc = new SingleFlight(R2dbc.of(databaseClient, Type.MYSQL));
+ * </pre>
+ */
+public class SingleFlight extends Delegating {
+
+    /**
+     * Reads in flight, by entity type, operation & parameters.
+     */
+    private final Map<List<Object>, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(R2dbc delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public <T> Mono<Long> count(Class<T> clazz) {
+        return share(Arrays.asList(clazz, "count"), () -> delegate.count(clazz));
+    }
+
+    @Override
+    public <T> Mono<Boolean> existsById(Class<T> clazz, @NonNull Object id) {
+        return share(Arrays.asList(clazz, "existsById", TableInfo.of(clazz).idKey(id)), () -> delegate.existsById(clazz, id));
+    }
+
+    @Override
+    public <T> Mono<T> findById(Class<T> clazz, @NonNull Object id) {
+        return share(Arrays.asList(clazz, "findById", TableInfo.of(clazz).idKey(id)), () -> delegate.findById(clazz, id));
+    }
+
+    /**
+     * Looked up on subscription, so each subscription either joins the read in flight or starts a new one.
+     */
+    private <R> Mono<R> share(List<Object> key, Supplier<Mono<R>> read) {
+        return Transactions.current()
+                .hasElement()
+                .flatMap(inTransaction -> {
+                    if (inTransaction) {
+                        // Rows read by the connection of a transaction must not be seen by others.
+                        return read.get();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    Mono<R> shared = (Mono<R>) inFlight.computeIfAbsent(key, k -> flight(k, read.get()));
+                    return shared;
+                });
+    }
+
+    /**
+     * Shares the read among subscribers until it terminates, or all of them cancelled. It is removed from
+     * {@link #inFlight} before the result is passed on, so later callers query again.
+     */
+    private <R> Mono<R> flight(List<Object> key, Mono<R> read) {
+        Object[] self = new Object[1];
+        Runnable land = () -> inFlight.remove(key, self[0]);
+
+        Mono<R> flight = read
+                .doOnTerminate(land)
+                .doOnCancel(land)
+                .flux()
+                .replay(1)
+                .refCount()
+                .singleOrEmpty();
+
+        self[0] = flight;
+        return flight;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Since 1.2: latency of statements per SQL fingerprint, and log of statements slower than a threshold.
+ * <p>
+ * The fingerprint is the SQL with literals & bind markers replaced by "?", IN lists collapsed to "(?, ...)" and
+ * whitespace collapsed, so statements differing in values or number of ids are counted together.
+ * <p>
+ * Covers statements of count/exists/findById/findAll/select/update/execute and deleteAll. Statements bound from entities
+ * (save/upsert/saveAll/delete) are not covered.
+ * <pre>
+ * R2dbc r2dbc = R2dbc.of(databaseClient, Type.MYSQL, Metrics.NONE, new SlowQueryLog(Duration.ofMillis(200), 0.1, 1000));
+ * </pre>
+ */
+public class SlowQueryLog {
+
+    private static final Log logger = LogFactory.getLog(SlowQueryLog.class);
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?: ?, ?\\?)*\\)");
+    private static final Pattern ROW_IN_LIST = Pattern.compile("\\((\\((?:\\?|\\?, \\.\\.\\.)\\))(?: ?, ?\\((?:\\?|\\?, \\.\\.\\.)\\))*\\)");
+
+    /**
+     * Bind parameters shown in log at most.
+     */
+    private static final int MAX_SHAPE = 20;
+
+    private final long thresholdNanos;
+    private final double explainRate;
+    private final int maxFingerprints;
+
+    /**
+     * Least recently executed fingerprints are dropped first, in batches once there are too many.
+     */
+    private final Map<String, Entry> stats = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Fingerprints by SQL, cleared when too many.
+     */
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Logs statements slower than threshold, without EXPLAIN.
+     */
+    public SlowQueryLog(Duration threshold) {
+        this(threshold, 0, 1000);
+    }
+
+    /**
+     * @param threshold       statements taking longer are logged.
+     * @param explainRate     fraction (from 0 to 1) of slow SELECT statements whose plan is logged as well. The EXPLAIN is
+     *                        executed on a separate connection, outside of any transaction.
+     * @param maxFingerprints fingerprints kept in statistics at most.
+     */
+    public SlowQueryLog(Duration threshold, double explainRate, int maxFingerprints) {
+        this.thresholdNanos = threshold.toNanos();
+        this.explainRate = explainRate;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * @return snapshot of statistics by fingerprint, most recently executed last.
+     */
+    public Map<String, SimpleMetrics.Stats> stats() {
+        Map<String, SimpleMetrics.Stats> snapshot = new LinkedHashMap<>();
+
+        stats.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                .forEach(entry -> snapshot.put(entry.getKey(), entry.getValue().stats));
+
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return fingerprint of SQL.
+     */
+    public String fingerprint(String sql) {
+        String fingerprint = fingerprints.get(sql);
+
+        if (fingerprint == null) {
+            if (fingerprints.size() >= maxFingerprints * 4) {
+                fingerprints.clear();
+            }
+
+            fingerprint = normalize(sql);
+            fingerprints.put(sql, fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Records one execution of statement.
+     *
+     * @param binds parameters bound, in reverse order.
+     */
+    void record(Abstract r2dbc, String sql, TimedExecuteSpec.Bound binds, long nanos, boolean failed) {
+        String fingerprint = fingerprint(sql);
+        Entry entry = stats.get(fingerprint);
+
+        if (entry == null) {
+            entry = stats.computeIfAbsent(fingerprint, key -> new Entry());
+            if (stats.size() > maxFingerprints) {
+                evict();
+            }
+        }
+
+        SimpleMetrics.Stats fingerprintStats = entry.stats;
+        entry.lastUsed = System.nanoTime();
+        fingerprintStats.record(nanos, 0, 0, TimedExecuteSpec.Bound.count(binds), failed);
+
+        if (nanos < thresholdNanos || !logger.isWarnEnabled()) {
+            return;
+        }
+
+        List<TimedExecuteSpec.Bound> bindList = TimedExecuteSpec.Bound.toList(binds);
+
+        logger.warn("Slow query (" + nanos / 1_000_000 + " ms"
+                + ", p50 " + fingerprintStats.percentile(0.5) / 1_000_000 + " ms"
+                + ", p99 " + fingerprintStats.percentile(0.99) / 1_000_000 + " ms"
+                + " of " + fingerprintStats.count() + (failed ? ", failed" : "") + "): "
+                + fingerprint + " binds " + shapeOf(bindList));
+
+        if (explainRate > 0 && ThreadLocalRandom.current().nextDouble() < explainRate) {
+            explain(r2dbc, sql, bindList);
+        }
+    }
+
+    /**
+     * Drops the least recently executed tenth of fingerprints. Skipped if another thread is already evicting.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int excess = stats.size() - maxFingerprints * 9 / 10;
+
+            if (excess <= 0) {
+                return;
+            }
+
+            stats.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(stats::remove);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Logs the plan of SELECT statement. Subscribed apart from the caller, so it never joins the caller's transaction.
+     */
+    private void explain(Abstract r2dbc, String sql, List<TimedExecuteSpec.Bound> binds) {
+        if (!sql.trim().regionMatches(true, 0, "SELECT", 0, 6)) {
+            return;
+        }
+
+        String explainSql = r2dbc.explainSql(sql);
+
+        if (explainSql == null) {
+            return;
+        }
+
+        DatabaseClient.GenericExecuteSpec executeSpec = r2dbc.databaseClient.execute(explainSql);
+
+        for (TimedExecuteSpec.Bound bind : binds) {
+            executeSpec = bind.bindTo(executeSpec);
+        }
+
+        executeSpec.fetch()
+                .all()
+                .map(row -> row.values().stream().map(String::valueOf).collect(Collectors.joining(" | ")))
+                .collectList()
+                .subscribe(
+                        plan -> logger.warn("Plan of slow query: " + fingerprint(sql) + "\n" + String.join("\n", plan)),
+                        error -> logger.debug("Failed to explain slow query: " + fingerprint(sql), error));
+    }
+
+    /**
+     * Types of bind parameters, e.g. [Integer, NULL String, name: Long].
+     */
+    private static String shapeOf(List<TimedExecuteSpec.Bound> binds) {
+        List<String> shape = new ArrayList<>(Math.min(binds.size(), MAX_SHAPE) + 1);
+
+        for (int i = 0; i < binds.size() && i < MAX_SHAPE; i++) {
+            shape.add(binds.get(i).shape());
+        }
+
+        if (binds.size() > MAX_SHAPE) {
+            shape.add("... (" + binds.size() + " in total)");
+        }
+
+        return shape.toString();
+    }
+
+    static String normalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = sql.charAt(i);
+            char prev = sb.length() == 0 ? ' ' : sb.charAt(sb.length() - 1);
+
+            if (Character.isWhitespace(c)) {
+                // Whitespace collapsed.
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (prev != ' ') {
+                    sb.append(' ');
+                }
+            } else if (c == '\'') {
+                // String literal, with '' escaped.
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                sb.append('?');
+            } else if (Character.isDigit(c) && !isWordPart(prev)) {
+                // Numeric literal.
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else if ((c == '$' || c == ':') && i + 1 < n && !isWordPart(prev) && prev != ':' && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '_')) {
+                // Bind markers $1, :name (but not :: of cast)
+                i++;
+                while (i < n && isWordPart(sql.charAt(i))) {
+                    i++;
+                }
+                sb.append('?');
+            } else if (c == '@' && i + 2 < n && (sql.charAt(i + 1) == 'P' || sql.charAt(i + 1) == 'p') && Character.isDigit(sql.charAt(i + 2))) {
+                // Bind markers @P1
+                i += 2;
+                while (i < n && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+                sb.append('?');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+
+        String normalized = IN_LIST.matcher(sb.toString().trim()).replaceAll("(?, ...)");
+        return ROW_IN_LIST.matcher(normalized).replaceAll("($1, ...)");
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '@' || c == '#';
+    }
+
+    private static final class Entry {
+        private final SimpleMetrics.Stats stats = new SimpleMetrics.Stats();
+
+        /**
+         * Time last executed, for eviction. Racy updates are fine, order is approximate anyway.
+         */
+        private volatile long lastUsed = System.nanoTime();
+    }
+}
@@ -32,13 +32,31 @@ import net.benpl.r2dbc.exception.R2dbcException;
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Detail information of class contains annotation {@link Table}.
+ * <p>
+ * Since 1.2: instances are built once per class and shared process-wide. (See {@link #of(Class)})
  */
 class TableInfo<T> {
 
+    /**
+     * Registry of all resolved entity classes.
+     */
+    private static final ClassValue<TableInfo<?>> REGISTRY = new ClassValue<TableInfo<?>>() {
+        @Override
+        protected TableInfo<?> computeValue(Class<?> clazz) {
+            return new TableInfo<>(clazz);
+        }
+    };
+
+    /**
+     * Since 1.2: this class.
+     */
+    final Class<T> clazz;
+
     /**
      * Full name of this class.
      */
@@ -59,6 +77,17 @@ class TableInfo<T> {
      */
     Field aiField = null;
 
+    /**
+     * Since 1.2: column name of {@link #aiField}.
+     */
+    String aiKey = null;
+
+    /**
+     * Since 1.2: version of optimistic locking. {@link Column#version()}
+     */
+    Field versionField = null;
+    String versionKey = null;
+
     /**
      * Columns of table. {@link Column}
      */
@@ -74,7 +103,49 @@ class TableInfo<T> {
      */
     final List<String> allKeys = new ArrayList<>();
 
+    /**
+     * Since 1.2: column names of non primary key.
+     */
+    final List<String> nonKeys;
+
+    /**
+     * Since 1.2: column names of non primary key, other than version.
+     */
+    final List<String> nonVersionKeys;
+
+    /**
+     * Since 1.2: {@link Table#dynamicUpdate()}
+     */
+    final boolean dynamicUpdate;
+
+    /**
+     * Since 1.2: {@link Table#cacheSize()} & {@link Table#cacheTtl()}
+     */
+    final int cacheSize;
+    final long cacheTtl;
+
+    /**
+     * Fields of composite primary key class. {@link IdClass#value()}
+     */
+    private final Map<String, Field> idFields = new HashMap<>();
+
+    /**
+     * Since 1.2: all columns in order, with accessors & NULL handling resolved from {@link Column#nullable()} and
+     * {@link Column#noDefault()}. (See {@link #columnsOf(Object)})
+     */
+    final List<String> columnList;
+    private final FieldAccessor[] columnAccessors;
+    private final boolean[] defaultIfNull;
+    private final boolean[] rejectIfNull;
+
+    /**
+     * Since 1.2: columns matched by DELETE of entity, primary key, or all columns if no primary key.
+     * (SQL texts are compiled per dialect, see {@link EntitySql})
+     */
+    final List<String> deleteKeys;
+
     private TableInfo(Class<T> clazz) {
+        this.clazz = clazz;
         this.className = clazz.getCanonicalName();
 
         Table table = clazz.getAnnotation(Table.class);
@@ -88,6 +159,10 @@ class TableInfo<T> {
             throw new R2dbcException(String.format("%s: [%s] is not a TABLE.", className, tableName));
         }
 
+        this.dynamicUpdate = table.dynamicUpdate();
+        this.cacheSize = table.cacheSize();
+        this.cacheTtl = table.cacheTtl();
+
         this.idClass = clazz.isAnnotationPresent(IdClass.class) ? clazz.getAnnotation(IdClass.class).value() : null;
 
         Stream.of(clazz.getDeclaredFields())
@@ -102,10 +177,77 @@ class TableInfo<T> {
                     if (column.primary()) {
                         if (column.autoIncrement()) {
                             aiField = field;
+                            aiKey = key;
                         }
                         allKeys.add(key);
                     }
+
+                    if (column.version()) {
+                        if (versionField != null) {
+                            throw new R2dbcException(String.format("%s: more than one version column. (%s, %s)", className, versionKey, key));
+                        }
+                        // Primitives are never null (unsaved), other types cannot be incremented.
+                        Class<?> versionType = field.getType();
+                        if (versionType != Integer.class && versionType != Long.class && versionType != Short.class) {
+                            throw new R2dbcException(String.format("%s: version column [%s] type %s invalid. (Should be Integer, Long or Short)", className, key, versionType.getSimpleName()));
+                        }
+                        versionField = field;
+                        versionKey = key;
+                    }
                 });
+
+        if (idClass != null) {
+            Stream.of(idClass.getDeclaredFields())
+                    .filter(field -> field.isAnnotationPresent(Column.class))
+                    .forEach(field -> idFields.put(field.getAnnotation(Column.class).value(), field));
+        }
+
+        this.nonKeys = Collections.unmodifiableList(allFields.keySet().stream().filter(s -> !allKeys.contains(s)).collect(Collectors.toList()));
+        this.nonVersionKeys = Collections.unmodifiableList(nonKeys.stream().filter(s -> !s.equals(versionKey)).collect(Collectors.toList()));
+        this.deleteKeys = Collections.unmodifiableList(new ArrayList<>(allKeys.isEmpty() ? allFields.keySet() : allKeys));
+
+        this.columnList = Collections.unmodifiableList(new ArrayList<>(allFields.keySet()));
+        this.columnAccessors = new FieldAccessor[columnList.size()];
+        this.defaultIfNull = new boolean[columnList.size()];
+        this.rejectIfNull = new boolean[columnList.size()];
+
+        for (int i = 0; i < columnList.size(); i++) {
+            Column column = allColumns.get(columnList.get(i));
+            columnAccessors[i] = FieldAccessor.of(clazz, allFields.get(columnList.get(i)));
+            defaultIfNull[i] = !column.nullable() && !column.noDefault();
+            rejectIfNull[i] = !column.nullable() && column.noDefault();
+        }
+    }
+
+    /**
+     * Since 1.2: columns to be written for entity.
+     * <p>
+     * A NULL column is left to the default value if it is not nullable, or rejected if it has no default value.
+     *
+     * @return {@link #columnList} itself if all columns are written.
+     */
+    List<String> columnsOf(T entity) {
+        List<String> columns = null;
+
+        for (int i = 0; i < columnAccessors.length; i++) {
+            if ((defaultIfNull[i] || rejectIfNull[i]) && columnAccessors[i].get(entity) == null) {
+                if (rejectIfNull[i]) {
+                    throw new R2dbcException("Table [" + tableName + "]: " + columnList.get(i) + " cannot be set to NULL.");
+                }
+
+                // Leaves it to the default value.
+                if (columns == null) {
+                    columns = new ArrayList<>(columnList.subList(0, i));
+                }
+                continue;
+            }
+
+            if (columns != null) {
+                columns.add(columnList.get(i));
+            }
+        }
+
+        return columns == null ? columnList : columns;
     }
 
     static <T> TableInfo<T> of(T entity) {
@@ -114,8 +256,13 @@ class TableInfo<T> {
         return of(clazz);
     }
 
+    /**
+     * 1.2: returns the shared instance, which is built on first access.
+     */
     static <T> TableInfo<T> of(Class<T> clazz) {
-        return new TableInfo<>(clazz);
+        @SuppressWarnings("unchecked")
+        TableInfo<T> tableInfo = (TableInfo<T>) REGISTRY.get(clazz);
+        return tableInfo;
     }
 
     /**
@@ -128,19 +275,61 @@ class TableInfo<T> {
         return true;
     }
 
+    /**
+     * Since 1.2: values of all columns, in the order of {@link #allFields}.
+     */
+    Object[] valuesOf(T entity) {
+        Object[] values = new Object[allFields.size()];
+
+        int i = 0;
+        for (Field field : allFields.values()) {
+            values[i++] = Utils.getFieldValue(entity, field);
+        }
+
+        return values;
+    }
+
+    /**
+     * Since 1.2: non primary key (and non version) columns changed since snapshot. (See {@link #valuesOf(Object)})
+     */
+    List<String> dirtyKeys(T entity, Object[] snapshot) {
+        List<String> dirty = new ArrayList<>();
+
+        int i = 0;
+        for (Map.Entry<String, Field> entry : allFields.entrySet()) {
+            if (!allKeys.contains(entry.getKey()) && !entry.getKey().equals(versionKey) && !Objects.deepEquals(Utils.getFieldValue(entity, entry.getValue()), snapshot[i])) {
+                dirty.add(entry.getKey());
+            }
+            i++;
+        }
+
+        return dirty;
+    }
+
     Object aiValueFrom(Number id) {
-        Class<?> classType = aiField.getType();
+        return numberValueFrom(aiField, id);
+    }
+
+    /**
+     * Since 1.2.
+     */
+    Object versionValueFrom(Number version) {
+        return numberValueFrom(versionField, version);
+    }
+
+    private Object numberValueFrom(Field field, Number number) {
+        Class<?> classType = field.getType();
 
         if (classType.equals(Byte.class)) {
-            return id.byteValue();
+            return number.byteValue();
         } else if (classType.equals(Short.class)) {
-            return id.shortValue();
+            return number.shortValue();
         } else if (classType.equals(Integer.class)) {
-            return id.intValue();
+            return number.intValue();
         } else if (classType.equals(Long.class)) {
-            return id.longValue();
+            return number.longValue();
         } else {
-            throw new R2dbcException(String.format("%s: field [%s] type %s invalid.", className, aiField.getName(), classType.getSimpleName()));
+            throw new R2dbcException(String.format("%s: field [%s] type %s invalid.", className, field.getName(), classType.getSimpleName()));
         }
     }
 
@@ -152,27 +341,55 @@ class TableInfo<T> {
                 throw new R2dbcException(String.format("%s: invalid primary key class %s. (Should be %s)", className, id.getClass().getCanonicalName(), idClass.getCanonicalName()));
             }
 
-            Map<String, Field> fields = new HashMap<>();
-
-            Stream.of(idClass.getDeclaredFields())
-                    .filter(field -> field.isAnnotationPresent(Column.class))
-                    .forEach(field -> fields.put(field.getAnnotation(Column.class).value(), field));
-
             allKeys.forEach(key -> {
-                Field field = fields.get(key);
+                Field field = idFields.get(key);
                 if (field != null) {
                     result.put(key, Utils.getFieldValue(id, field));
                 } else {
                     throw new R2dbcException(String.format("%s: column [%s] not found in primary key class %s.", className, key, idClass.getCanonicalName()));
                 }
             });
-        } else {
+        } else if (!allKeys.isEmpty()) {
             result.put(allKeys.get(0), id);
+        } else {
+            throw new R2dbcException(String.format("%s: [%s] has no primary key.", className, tableName));
         }
 
         return result;
     }
 
+    /**
+     * Since 1.2: values of primary key of id, comparable with {@link #entityKey(Object)}.
+     */
+    List<Object> idKey(@NonNull Object id) {
+        List<Object> key = new ArrayList<>(allKeys.size());
+        for (Object value : getIdValues(id).values()) {
+            key.add(normalize(value));
+        }
+        return key;
+    }
+
+    /**
+     * Since 1.2: values of primary key of entity, comparable with {@link #idKey(Object)}.
+     */
+    List<Object> entityKey(@NonNull T entity) {
+        List<Object> key = new ArrayList<>(allKeys.size());
+        for (String column : allKeys) {
+            key.add(normalize(Utils.getFieldValue(entity, allFields.get(column))));
+        }
+        return key;
+    }
+
+    /**
+     * Integral numbers are compared as Long, so that e.g. id 1 (Integer) matches 1L (Long).
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
     /**
      * Since 1.1.
      */
@@ -186,14 +403,8 @@ class TableInfo<T> {
             return Utils.getFieldValue(entity, field);
         } else {
             // Composite primary key.
-            Map<String, Field> idFields = new HashMap<>();
-
-            Stream.of(idClass.getDeclaredFields())
-                    .filter(field -> field.isAnnotationPresent(Column.class))
-                    .forEach(field -> idFields.put(field.getAnnotation(Column.class).value(), field));
-
             try {
-                Object idInstance = idClass.newInstance();
+                Object idInstance = Utils.newInstance(idClass);
 
                 allKeys.forEach(key -> {
                     Field field = allFields.get(key);
@@ -202,7 +413,7 @@ class TableInfo<T> {
                 });
 
                 return idInstance;
-            } catch (InstantiationException | IllegalAccessException e) {
+            } catch (ReflectiveOperationException e) {
                 throw new R2dbcException(String.format("%s: failed to invoke newInstance() of primary key class %s.", className, idClass.getCanonicalName()), e);
             }
         }
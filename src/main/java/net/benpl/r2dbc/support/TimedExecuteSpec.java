@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.FetchSpec;
+import org.springframework.data.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Since 1.2: {@link DatabaseClient.GenericExecuteSpec} recording the execution to {@link SlowQueryLog}.
+ * <p>
+ * Immutable like the wrapped one: each bind returns a new instance, sharing the binds before.
+ * <p>
+ * Results of {@link #as(Class)} are not recorded.
+ */
+class TimedExecuteSpec implements DatabaseClient.GenericExecuteSpec {
+
+    private final Abstract r2dbc;
+    private final SlowQueryLog slowQueryLog;
+    private final String sql;
+    private final DatabaseClient.GenericExecuteSpec delegate;
+
+    /**
+     * The last bind, or {@literal null} if none.
+     */
+    private final Bound binds;
+
+    TimedExecuteSpec(Abstract r2dbc, SlowQueryLog slowQueryLog, String sql, DatabaseClient.GenericExecuteSpec delegate) {
+        this(r2dbc, slowQueryLog, sql, delegate, null);
+    }
+
+    private TimedExecuteSpec(Abstract r2dbc, SlowQueryLog slowQueryLog, String sql, DatabaseClient.GenericExecuteSpec delegate, Bound binds) {
+        this.r2dbc = r2dbc;
+        this.slowQueryLog = slowQueryLog;
+        this.sql = sql;
+        this.delegate = delegate;
+        this.binds = binds;
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec bind(int index, Object value) {
+        return new TimedExecuteSpec(r2dbc, slowQueryLog, sql, delegate.bind(index, value), new Bound(index, null, value.getClass(), value, binds));
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec bindNull(int index, Class<?> type) {
+        return new TimedExecuteSpec(r2dbc, slowQueryLog, sql, delegate.bindNull(index, type), new Bound(index, null, type, null, binds));
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec bind(String name, Object value) {
+        return new TimedExecuteSpec(r2dbc, slowQueryLog, sql, delegate.bind(name, value), new Bound(-1, name, value.getClass(), value, binds));
+    }
+
+    @Override
+    public DatabaseClient.GenericExecuteSpec bindNull(String name, Class<?> type) {
+        return new TimedExecuteSpec(r2dbc, slowQueryLog, sql, delegate.bindNull(name, type), new Bound(-1, name, type, null, binds));
+    }
+
+    @Override
+    public <R> DatabaseClient.TypedExecuteSpec<R> as(Class<R> resultType) {
+        return delegate.as(resultType);
+    }
+
+    @Override
+    public <R> RowsFetchSpec<R> map(Function<Row, R> mappingFunction) {
+        return timed(delegate.map(mappingFunction));
+    }
+
+    @Override
+    public <R> RowsFetchSpec<R> map(BiFunction<Row, RowMetadata, R> mappingFunction) {
+        return timed(delegate.map(mappingFunction));
+    }
+
+    @Override
+    public FetchSpec<Map<String, Object>> fetch() {
+        FetchSpec<Map<String, Object>> fetchSpec = delegate.fetch();
+
+        return new FetchSpec<Map<String, Object>>() {
+            @Override
+            public Mono<Map<String, Object>> one() {
+                return timed(fetchSpec.one());
+            }
+
+            @Override
+            public Mono<Map<String, Object>> first() {
+                return timed(fetchSpec.first());
+            }
+
+            @Override
+            public Flux<Map<String, Object>> all() {
+                return timed(fetchSpec.all());
+            }
+
+            @Override
+            public Mono<Integer> rowsUpdated() {
+                return timed(fetchSpec.rowsUpdated());
+            }
+        };
+    }
+
+    @Override
+    public Mono<Void> then() {
+        return timed(delegate.then());
+    }
+
+    private <R> RowsFetchSpec<R> timed(RowsFetchSpec<R> rowsFetchSpec) {
+        return new RowsFetchSpec<R>() {
+            @Override
+            public Mono<R> one() {
+                return timed(rowsFetchSpec.one());
+            }
+
+            @Override
+            public Mono<R> first() {
+                return timed(rowsFetchSpec.first());
+            }
+
+            @Override
+            public Flux<R> all() {
+                return timed(rowsFetchSpec.all());
+            }
+        };
+    }
+
+    private <R> Mono<R> timed(Mono<R> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> slowQueryLog.record(r2dbc, sql, binds, System.nanoTime() - start, signal == SignalType.ON_ERROR));
+        });
+    }
+
+    private <R> Flux<R> timed(Flux<R> flux) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> slowQueryLog.record(r2dbc, sql, binds, System.nanoTime() - start, signal == SignalType.ON_ERROR));
+        });
+    }
+
+    /**
+     * A bind parameter, linked to the one bound before.
+     */
+    static final class Bound {
+        private final int index;
+        private final String name;
+        private final Class<?> type;
+        private final Object value;
+        private final Bound previous;
+
+        private Bound(int index, String name, Class<?> type, Object value, Bound previous) {
+            this.index = index;
+            this.name = name;
+            this.type = type;
+            this.value = value;
+            this.previous = previous;
+        }
+
+        /**
+         * @return number of binds.
+         */
+        static int count(Bound last) {
+            int count = 0;
+            for (Bound bound = last; bound != null; bound = bound.previous) {
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * @return binds in the order bound.
+         */
+        static List<Bound> toList(Bound last) {
+            if (last == null) {
+                return Collections.emptyList();
+            }
+
+            List<Bound> binds = new ArrayList<>();
+            for (Bound bound = last; bound != null; bound = bound.previous) {
+                binds.add(bound);
+            }
+
+            Collections.reverse(binds);
+            return binds;
+        }
+
+        String shape() {
+            String typeStr = (value == null ? "NULL " : "") + type.getSimpleName();
+            return name == null ? typeStr : name + ": " + typeStr;
+        }
+
+        DatabaseClient.GenericExecuteSpec bindTo(DatabaseClient.GenericExecuteSpec executeSpec) {
+            if (name == null) {
+                return value == null ? executeSpec.bindNull(index, type) : executeSpec.bind(index, value);
+            } else {
+                return value == null ? executeSpec.bindNull(name, type) : executeSpec.bind(name, value);
+            }
+        }
+    }
+}
@@ -24,76 +24,41 @@
 
 package net.benpl.r2dbc.support;
 
-import net.benpl.r2dbc.exception.R2dbcException;
-import org.springframework.util.StringUtils;
-
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 class Utils {
     /**
      * Get field value from object.
+     * <p>
+     * 1.2: delegates to {@link FieldAccessor}, resolved once per entity class.
      */
     static Object getFieldValue(Object entity, Field field) {
-        Class<?> clazz = entity.getClass();
-        String className = clazz.getCanonicalName();
-        String fieldName = field.getName();
-
-        if (field.isAccessible()) {
-            try {
-                return field.get(entity);
-            } catch (IllegalAccessException e) {
-                throw new R2dbcException(String.format("%s: failed to get field [%s] value.", className, fieldName), e);
-            }
-        } else {
-            Method method;
-            String methodName = "get" + StringUtils.capitalize(fieldName);
-
-            try {
-                method = clazz.getMethod(methodName);
-            } catch (NoSuchMethodException e) {
-                throw new R2dbcException(String.format("%s: getter %s() not found.", className, methodName), e);
-            }
-
-            try {
-                return method.invoke(entity);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new R2dbcException(String.format("%s: failed to invoke getter %s().", className, methodName), e);
-            }
-        }
+        return FieldAccessor.of(entity.getClass(), field).get(entity);
     }
 
     /**
      * Set field value into object.
+     * <p>
+     * 1.2: delegates to {@link FieldAccessor}, resolved once per entity class.
      */
     static void setFieldValue(Object entity, Field field, Object value) {
-        Class<?> clazz = entity.getClass();
-        String className = clazz.getCanonicalName();
-
-        if (field.isAccessible()) {
-            try {
-                field.set(entity, value);
-            } catch (IllegalAccessException e) {
-                throw new R2dbcException(String.format("%s: failed to set field [%s] value.", className, field.getName()), e);
-            }
-        } else {
-            Method method;
-            String methodName = "set" + StringUtils.capitalize(field.getName());
-            Class<?> fieldType = field.getType();
+        FieldAccessor.of(entity.getClass(), field).set(entity, value);
+    }
 
-            try {
-                method = clazz.getDeclaredMethod(methodName, fieldType);
-            } catch (NoSuchMethodException e) {
-                throw new R2dbcException(String.format("%s: setter %s(%s) not found.", className, methodName, fieldType.getCanonicalName()), e);
-            }
+    /**
+     * Since 1.2: creates an instance through the generated {@link EntityAccessor} if any, otherwise the no-args constructor.
+     */
+    static <T> T newInstance(Class<T> clazz) throws ReflectiveOperationException {
+        EntityAccessor<T> accessor = EntityAccessors.of(clazz);
 
-            try {
-                method.invoke(entity, value);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new R2dbcException(String.format("%s: failed to invoke setter %s(%s).", className, methodName, fieldType.getCanonicalName()), e);
+        if (accessor != null) {
+            T instance = accessor.newInstance();
+            if (instance != null) {
+                return instance;
             }
         }
+
+        return clazz.getDeclaredConstructor().newInstance();
     }
 
     /**
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardFunctionTest {
+
+    private enum Region {
+        EU, US
+    }
+
+    private final ShardFunction hash = new ShardFunction.Hash();
+
+    @Test
+    public void stableAcrossIntegralTypes() {
+        for (long id : new long[]{0, 1, -1, 42, Short.MAX_VALUE, Integer.MIN_VALUE}) {
+            int shard = shardOf(id);
+            assertEquals(shard, shardOf((int) id));
+            if (id == (short) id) {
+                assertEquals(shard, shardOf((short) id));
+            }
+            if (id == (byte) id) {
+                assertEquals(shard, shardOf((byte) id));
+            }
+        }
+    }
+
+    @Test
+    public void stableAcrossReleases() {
+        // Changing these moves existing rows to other shards.
+        assertEquals(8, shardOf(1L));
+        assertEquals(2, shardOf(42L));
+        assertEquals(15, shardOf(-7L));
+        assertEquals(11, shardOf(1L << 40));
+        assertEquals(12, hash.shardOf(Arrays.asList(1L, "a"), 16));
+        assertEquals(9, shardOf("user-1"));
+    }
+
+    @Test
+    public void enumsByName() {
+        assertEquals(shardOf("EU"), shardOf(Region.EU));
+        assertEquals(shardOf("US"), shardOf(Region.US));
+    }
+
+    @Test
+    public void arraysByContent() {
+        assertEquals(shardOf(new byte[]{1, 2, 3}), shardOf(new byte[]{1, 2, 3}));
+        assertEquals(shardOf(new long[]{1, 2}), shardOf(new long[]{1, 2}));
+        assertEquals(shardOf(new Object[]{"a", 1L}), shardOf(new Object[]{"a", 1L}));
+    }
+
+    @Test
+    public void withinShards() {
+        for (int shards = 1; shards <= 7; shards++) {
+            for (long id = -100; id <= 100; id++) {
+                int shard = hash.shardOf(Collections.singletonList(id), shards);
+                assertTrue(shard >= 0 && shard < shards);
+            }
+        }
+        assertEquals(0, hash.shardOf(Collections.singletonList(new BigDecimal("1.5")), 1));
+        assertEquals(0, hash.shardOf(Collections.singletonList(null), 1));
+    }
+
+    private int shardOf(Object value) {
+        List<Object> key = Collections.singletonList(value);
+        return hash.shardOf(key, 16);
+    }
+}
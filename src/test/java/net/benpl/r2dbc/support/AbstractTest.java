@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AbstractTest {
+
+    private final Abstract mysql = new Mysql(null);
+    private final Abstract mssql = new Mssql(null);
+
+    @Test
+    public void chunkSizeLimitedByRows() {
+        assertEquals(Abstract.MAX_CHUNK_ROWS, mysql.chunkSize(1));
+        assertEquals(Abstract.MAX_CHUNK_ROWS, mysql.chunkSize(3));
+    }
+
+    @Test
+    public void chunkSizeLimitedByBindParameters() {
+        assertEquals(1000, mssql.chunkSize(2));
+        assertEquals(666, mssql.chunkSize(3));
+        assertEquals(1, mssql.chunkSize(5000));
+    }
+
+    @Test
+    public void inClauseOfSingleKey() {
+        assertEquals("`id` IN (?, ?, ?)", mysql.inClause(Collections.singletonList("id"), 3));
+        assertEquals("[id] IN (?)", mssql.inClause(Collections.singletonList("id"), 1));
+    }
+
+    @Test
+    public void inClauseOfRowValues() {
+        assertEquals("(`a`, `b`) IN ((?, ?), (?, ?))", mysql.inClause(Arrays.asList("a", "b"), 2));
+    }
+
+    @Test
+    public void inClauseWithoutRowValues() {
+        assertEquals("([a] = ? AND [b] = ?) OR ([a] = ? AND [b] = ?)", mssql.inClause(Arrays.asList("a", "b"), 2));
+    }
+
+    @Test
+    public void afterClauseOfSingleKey() {
+        assertEquals("`id` > ?", mysql.afterClause(Collections.singletonList("id")));
+    }
+
+    @Test
+    public void afterClauseOfRowValues() {
+        assertEquals("(`a`, `b`) > (?, ?)", mysql.afterClause(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void afterClauseWithoutRowValues() {
+        assertEquals("([a] > ?) OR ([a] = ? AND [b] > ?) OR ([a] = ? AND [b] = ? AND [c] > ?)", mssql.afterClause(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void afterParamsOfRowValues() {
+        List<Abstract.Param> keyParams = Arrays.asList(new Abstract.Param(Long.class, 1L), new Abstract.Param(Long.class, 2L));
+        assertSame(keyParams, mysql.afterParams(keyParams));
+    }
+
+    @Test
+    public void afterParamsWithoutRowValues() {
+        Abstract.Param a = new Abstract.Param(Long.class, 1L);
+        Abstract.Param b = new Abstract.Param(String.class, "x");
+        Abstract.Param c = new Abstract.Param(Integer.class, null);
+
+        assertEquals(Arrays.asList(a, a, b, a, b, c), mssql.afterParams(Arrays.asList(a, b, c)));
+    }
+
+    @Test
+    public void rangesSplitEvenly() {
+        assertRanges(Abstract.ranges(1, 10, 3), 1, 3, 4, 6, 7, 10);
+    }
+
+    @Test
+    public void rangesNoMoreThanValues() {
+        assertRanges(Abstract.ranges(5, 6, 4), 5, 5, 6, 6);
+        assertRanges(Abstract.ranges(7, 7, 3), 7, 7);
+    }
+
+    @Test
+    public void rangesOfFullLongRange() {
+        assertRanges(Abstract.ranges(Long.MIN_VALUE, Long.MAX_VALUE, 2), Long.MIN_VALUE, -1, 0, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void rangesNearLongBounds() {
+        assertRanges(Abstract.ranges(Long.MAX_VALUE - 2, Long.MAX_VALUE, 2), Long.MAX_VALUE - 2, Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE);
+        assertRanges(Abstract.ranges(Long.MIN_VALUE, Long.MIN_VALUE + 1, 8), Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE + 1);
+    }
+
+    private static void assertRanges(List<long[]> ranges, long... bounds) {
+        long[] actual = new long[ranges.size() * 2];
+        for (int i = 0; i < ranges.size(); i++) {
+            actual[i * 2] = ranges.get(i)[0];
+            actual[i * 2 + 1] = ranges.get(i)[1];
+        }
+        assertArrayEquals(bounds, actual);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import net.benpl.r2dbc.support.Metrics.Operation;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleMetricsTest {
+
+    @Test
+    public void bucketsBoundedByLowerBounds() {
+        for (int bucket = 0; bucket < 247; bucket++) {
+            long lower = SimpleMetrics.Stats.lowerBoundOf(bucket);
+            long next = SimpleMetrics.Stats.lowerBoundOf(bucket + 1);
+
+            assertTrue(next > lower);
+            assertEquals(bucket, SimpleMetrics.Stats.bucketOf(lower));
+            assertEquals(bucket, SimpleMetrics.Stats.bucketOf(next - 1));
+        }
+    }
+
+    @Test
+    public void bucketsOfExtremes() {
+        assertEquals(0, SimpleMetrics.Stats.bucketOf(-1));
+        assertEquals(0, SimpleMetrics.Stats.bucketOf(0));
+        assertEquals(3, SimpleMetrics.Stats.bucketOf(3));
+        assertEquals(4, SimpleMetrics.Stats.bucketOf(4));
+        assertEquals(247, SimpleMetrics.Stats.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bucketsWithin25Percent() {
+        for (long nanos = 4; nanos > 0 && nanos < Long.MAX_VALUE / 2; nanos = nanos * 3 + 1) {
+            long lower = SimpleMetrics.Stats.lowerBoundOf(SimpleMetrics.Stats.bucketOf(nanos));
+            assertTrue(lower <= nanos && nanos - lower <= lower / 4);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        SimpleMetrics metrics = new SimpleMetrics();
+
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(String.class, Operation.FIND_BY_ID, i * 1_000_000L, 1, 0, 1, i == 100);
+        }
+
+        SimpleMetrics.Stats stats = metrics.stats(String.class, Operation.FIND_BY_ID);
+
+        assertEquals(100, stats.count());
+        assertEquals(1, stats.failures());
+        assertEquals(100, stats.rowsMapped());
+        assertEquals(100, stats.bindParameters());
+
+        long p50 = stats.percentile(0.5);
+        long p99 = stats.percentile(0.99);
+
+        // Upper bound of the bucket holding the rank.
+        assertTrue(p50 >= 50_000_000L && p50 <= 50_000_000L * 5 / 4);
+        assertTrue(p99 >= 99_000_000L && p99 <= 99_000_000L * 5 / 4);
+        assertEquals(0, metrics.stats(String.class, Operation.COUNT).percentile(0.5));
+    }
+}
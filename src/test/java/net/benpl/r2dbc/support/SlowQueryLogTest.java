@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+public class SlowQueryLogTest {
+
+    @Test
+    public void normalizeLiterals() {
+        assertEquals("SELECT * FROM `user` WHERE id = ?", SlowQueryLog.normalize("SELECT * FROM `user` WHERE id = 1"));
+        assertEquals("SELECT * FROM t WHERE name = ? AND x = ?", SlowQueryLog.normalize("SELECT * FROM t WHERE name = 'O''Brien' AND x = 1.5e3"));
+    }
+
+    @Test
+    public void normalizeWhitespace() {
+        assertEquals("SELECT * FROM t WHERE a = ?", SlowQueryLog.normalize("  SELECT *\n  FROM\tt   WHERE a = ?\n"));
+    }
+
+    @Test
+    public void normalizeBindMarkers() {
+        assertEquals("SELECT * FROM t WHERE a = ? AND b = ? AND c = ?", SlowQueryLog.normalize("SELECT * FROM t WHERE a = $1 AND b = @P2 AND c = :name"));
+    }
+
+    @Test
+    public void normalizeKeepsIdentifiersAndCasts() {
+        assertEquals("SELECT x::text, col1, t2.c3 FROM t2", SlowQueryLog.normalize("SELECT x::text, col1, t2.c3 FROM t2"));
+    }
+
+    @Test
+    public void normalizeInLists() {
+        assertEquals("SELECT * FROM t WHERE id IN (?, ...)", SlowQueryLog.normalize("SELECT * FROM t WHERE id IN (?)"));
+        assertEquals("SELECT * FROM t WHERE id IN (?, ...)", SlowQueryLog.normalize("SELECT * FROM t WHERE id IN ($1, $2,$3)"));
+        assertEquals("SELECT * FROM t WHERE (a, b) IN ((?, ...), ...)", SlowQueryLog.normalize("SELECT * FROM t WHERE (a, b) IN ((?, ?), (?, ?))"));
+    }
+
+    @Test
+    public void fingerprintOfSameShape() {
+        SlowQueryLog log = new SlowQueryLog(Duration.ofSeconds(1));
+        assertEquals(log.fingerprint("DELETE FROM t WHERE id IN (1, 2)"), log.fingerprint("DELETE FROM t WHERE id IN (3, 4, 5, 6)"));
+    }
+}
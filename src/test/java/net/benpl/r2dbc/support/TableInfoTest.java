@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright © 2019 Ben Peng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the “Software”), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.benpl.r2dbc.support;
+
+import lombok.Data;
+import net.benpl.r2dbc.annotation.Column;
+import net.benpl.r2dbc.annotation.Table;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TableInfoTest {
+
+    @Data
+    @Table(value = "account", type = "TABLE", dynamicUpdate = true)
+    public static class Account {
+        @Column(value = "id", primary = true)
+        private Long id;
+
+        @Column(value = "name")
+        private String name;
+
+        @Column(value = "tags", nullable = true)
+        private byte[] tags;
+
+        @Column(value = "version", version = true)
+        private Integer version;
+    }
+
+    @Test
+    public void normalizeIntegralNumbersAsLong() {
+        assertEquals(1L, TableInfo.normalize((byte) 1));
+        assertEquals(1L, TableInfo.normalize((short) 1));
+        assertEquals(1L, TableInfo.normalize(1));
+        assertEquals(1L, TableInfo.normalize(1L));
+        assertEquals("1", TableInfo.normalize("1"));
+        assertNull(TableInfo.normalize(null));
+    }
+
+    @Test
+    public void idKeyMatchesEntityKey() {
+        TableInfo<Account> tableInfo = TableInfo.of(Account.class);
+        Account account = new Account();
+        account.setId(7L);
+
+        assertEquals(Collections.singletonList(7L), tableInfo.idKey(7));
+        assertEquals(tableInfo.idKey(7), tableInfo.entityKey(account));
+    }
+
+    @Test
+    public void dirtyKeysOfChangedColumns() {
+        TableInfo<Account> tableInfo = TableInfo.of(Account.class);
+        Account account = account();
+        Object[] snapshot = tableInfo.valuesOf(account);
+
+        account.setName("changed");
+
+        assertEquals(Collections.singletonList("name"), tableInfo.dirtyKeys(account, snapshot));
+    }
+
+    @Test
+    public void dirtyKeysSkipKeyAndVersion() {
+        TableInfo<Account> tableInfo = TableInfo.of(Account.class);
+        Account account = account();
+        Object[] snapshot = tableInfo.valuesOf(account);
+
+        account.setId(8L);
+        account.setVersion(2);
+
+        assertTrue(tableInfo.dirtyKeys(account, snapshot).isEmpty());
+    }
+
+    @Test
+    public void dirtyKeysCompareArrayContent() {
+        TableInfo<Account> tableInfo = TableInfo.of(Account.class);
+        Account account = account();
+        Object[] snapshot = tableInfo.valuesOf(account);
+
+        account.setTags(new byte[]{1, 2});
+        assertTrue(tableInfo.dirtyKeys(account, snapshot).isEmpty());
+
+        account.setTags(new byte[]{1, 3});
+        assertEquals(Collections.singletonList("tags"), tableInfo.dirtyKeys(account, snapshot));
+    }
+
+    private static Account account() {
+        Account account = new Account();
+        account.setId(7L);
+        account.setName("name");
+        account.setTags(new byte[]{1, 2});
+        account.setVersion(1);
+        return account;
+    }
+}